@@ -0,0 +1,304 @@
+/*
+Keeps the solvers from getting slower without anybody noticing. It runs every solver on generated inputs at the max
+constraints of its problem (mixing case shapes so every engine gets its share) and measures how many cases it solves
+per second and how many bytes it allocates per case.
+
+With --record it saves those numbers as the baselines in a JSON file. With --check it measures again, prints how every
+solver did against its baseline, and exits with 1 if any of them solves slower or allocates more than the threshold
+allows (10% by default), so it can run before every commit or in CI.
+
+The inputs come from a fixed seed, so every run measures exactly the same cases.
+
+Usage:
+java kickstart.y2020.BenchmarkGate --record baselines.json
+java kickstart.y2020.BenchmarkGate --check baselines.json --threshold 0.15
+java kickstart.y2020.BenchmarkGate --check baselines.json --only rA.B,rA.D,rB.D
+ */
+package kickstart.y2020;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class BenchmarkGate {
+    private static final long SEED = 2020;
+    // Every solver runs for a while before measuring, so the JIT is done with it, and then at least MEASURED_RUNS times
+    private static final long WARM_UP_NANOS = 2_000_000_000L;
+    private static final long MEASURED_NANOS = 1_000_000_000L;
+    private static final int MEASURED_RUNS = 5;
+    private static final double DEFAULT_THRESHOLD = 0.10;
+
+    private static final Pattern BASELINE = Pattern.compile(
+            "\"([^\"]+)\"\\s*:\\s*\\{\\s*\"casesPerSecond\"\\s*:\\s*([0-9.eE+-]+)\\s*,"
+                    + "\\s*\"allocatedBytesPerCase\"\\s*:\\s*([0-9.eE+-]+)\\s*}");
+
+    public static void main(String[] args) throws Exception {
+        var options = new HashMap<String, String>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+
+        if (args.length % 2 != 0 || options.containsKey("--record") == options.containsKey("--check")) {
+            System.err.println("Usage: BenchmarkGate (--record <baselines> | --check <baselines> [--threshold <ratio>])"
+                    + " [--only <problem,problem...>]");
+            System.exit(2);
+        }
+
+        var problems = options.containsKey("--only")
+                ? Arrays.stream(options.get("--only").split(","))
+                        .map(id -> Problem.byId(id).orElseThrow(() -> new IllegalArgumentException("Unknown problem " + id)))
+                        .collect(Collectors.toList())
+                : List.of(Problem.values());
+
+        var results = new LinkedHashMap<String, Result>();
+        for (Problem problem : problems) {
+            results.put(problem.id, measure(problem));
+        }
+
+        if (options.containsKey("--record")) {
+            Files.writeString(Path.of(options.get("--record")), toJson(results));
+            results.forEach((id, result) -> System.out.println(id + "  " + result));
+            return;
+        }
+
+        var baselines = fromJson(Files.readString(Path.of(options.get("--check"))));
+        var threshold = Double.parseDouble(options.getOrDefault("--threshold", String.valueOf(DEFAULT_THRESHOLD)));
+
+        if (!report(results, baselines, threshold, System.out)) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean report(final Map<String, Result> results, final Map<String, Result> baselines,
+                                  final double threshold, final PrintStream out) {
+        // Prints every solver against its baseline, and returns if all of them are within the threshold
+        var passed = true;
+
+        out.printf("%-6s %14s %14s %8s %16s %16s %8s%n",
+                "", "cases/s", "baseline", "diff", "bytes/case", "baseline", "diff");
+
+        for (var entry : results.entrySet()) {
+            var result = entry.getValue();
+            var baseline = baselines.get(entry.getKey());
+
+            if (baseline == null) {
+                out.printf("%-6s %14.1f %14s %8s %16.0f %16s %8s  NO BASELINE%n",
+                        entry.getKey(), result.casesPerSecond, "-", "-", result.allocatedBytesPerCase, "-", "-");
+                continue;
+            }
+
+            var speed = result.casesPerSecond / baseline.casesPerSecond - 1;
+            var allocation = baseline.allocatedBytesPerCase == 0
+                    ? (result.allocatedBytesPerCase == 0 ? 0 : Double.POSITIVE_INFINITY)
+                    : result.allocatedBytesPerCase / baseline.allocatedBytesPerCase - 1;
+            var regressed = speed < -threshold || allocation > threshold;
+            passed &= !regressed;
+
+            out.printf("%-6s %14.1f %14.1f %+7.1f%% %16.0f %16.0f %+7.1f%%  %s%n",
+                    entry.getKey(), result.casesPerSecond, baseline.casesPerSecond, 100 * speed,
+                    result.allocatedBytesPerCase, baseline.allocatedBytesPerCase, 100 * allocation,
+                    regressed ? "REGRESSION" : "OK");
+        }
+
+        return passed;
+    }
+
+    private static Result measure(final Problem problem) throws Exception {
+        var random = new Random(SEED);
+        var cases = new int[1];
+        var input = generate(problem, random, cases).getBytes(StandardCharsets.UTF_8);
+        var out = new PrintStream(OutputStream.nullOutputStream());
+
+        var warmUpStart = System.nanoTime();
+        while (System.nanoTime() - warmUpStart < WARM_UP_NANOS) {
+            problem.solveAll(new ByteArrayInputStream(input), out);
+        }
+
+        var bestNanos = Long.MAX_VALUE;
+        var leastAllocated = Long.MAX_VALUE;
+        var measureStart = System.nanoTime();
+
+        for (int run = 0; run < MEASURED_RUNS || System.nanoTime() - measureStart < MEASURED_NANOS; run++) {
+            var allocatedBefore = allocatedBytes();
+            var start = System.nanoTime();
+
+            problem.solveAll(new ByteArrayInputStream(input), out);
+
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            leastAllocated = Math.min(leastAllocated, allocatedBytes() - allocatedBefore);
+        }
+
+        return new Result(cases[0] * 1e9 / bestNanos, (double) leastAllocated / cases[0]);
+    }
+
+    static String generate(final Problem problem, final Random random, final int[] cases) {
+        // An input at the max constraints of the problem, returning how many cases it has in cases[0]
+        var input = new StringBuilder();
+
+        switch (problem) {
+            case ALLOCATION:
+                cases[0] = 10;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    input.append(100_000).append(' ').append(100_000).append('\n');
+                    appendNumbers(input, 100_000, () -> 1 + random.nextInt(1000));
+                }
+                break;
+            case PLATES:
+                // Half of the cases pick few plates (the memo), half of them many (the bottom-up one)
+                cases[0] = 20;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    var maxPlates = caseN % 2 == 0 ? 1 + random.nextInt(30) : 1 + random.nextInt(1500);
+                    input.append(50).append(' ').append(30).append(' ').append(maxPlates).append('\n');
+                    for (int stack = 0; stack < 50; stack++) {
+                        appendNumbers(input, 30, () -> 1 + random.nextInt(100));
+                    }
+                }
+                break;
+            case WORKOUT:
+                // Half of the cases add few exercises (the queue), half of them many (the binary search)
+                cases[0] = 10;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    var maxAddedExercises = caseN % 2 == 0 ? 500 : 100_000;
+                    input.append(100_000).append(' ').append(maxAddedExercises).append('\n');
+                    var session = new long[1];
+                    appendNumbers(input, 100_000, () -> session[0] += 1 + random.nextInt(10_000));
+                }
+                break;
+            case BUNDLING:
+                // A case of long words (sorting them), three of short ones under the default shardedMinWords (the
+                // trie) and one of short ones over it (the sharded trie, or the plain one on a single processor)
+                cases[0] = 5;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    var words = caseN == 0 ? 20_000 : caseN == 4 ? 100_000 : 40_000;
+                    var maxLength = caseN == 0 ? 100 : 10;
+                    input.append(words).append(' ').append(5).append('\n');
+                    for (int word = 0; word < words; word++) {
+                        var length = 1 + random.nextInt(maxLength);
+                        for (int letter = 0; letter < length; letter++) {
+                            input.append((char) ('A' + random.nextInt(3)));
+                        }
+                        input.append('\n');
+                    }
+                }
+                break;
+            case BIKE_TOUR:
+                cases[0] = 100;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    input.append(100).append('\n');
+                    appendNumbers(input, 100, () -> 1 + random.nextInt(100));
+                }
+                break;
+            case BUS_ROUTES:
+                cases[0] = 100;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    input.append(1000).append(' ').append(1_000_000_000_000L).append('\n');
+                    appendNumbers(input, 1000, () -> 1 + (long) (random.nextDouble() * 1_000_000_000_000L));
+                }
+                break;
+            case ROBOT_PATH_DECODING:
+                cases[0] = 100;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    var program = new StringBuilder();
+                    appendProgram(program, random, 2000);
+                    input.append(program).append('\n');
+                }
+                break;
+            case WANDERING_ROBOT:
+                // Different arenas solved from scratch, and the last one asked again a few times (the query engine)
+                cases[0] = 20;
+                var distinctArenas = 16;
+                for (int caseN = 0; caseN < cases[0]; caseN++) {
+                    var width = 100_000 - Math.min(caseN, distinctArenas - 1) * 1000;
+                    var height = 100_000 - Math.min(caseN, distinctArenas - 1) * 500;
+                    var left = 2 + random.nextInt(width - 2);
+                    var up = 2 + random.nextInt(height - 2);
+                    var right = left + random.nextInt(width - left);
+                    var down = up + random.nextInt(height - up);
+                    input.append(width).append(' ').append(height).append(' ').append(left).append(' ').append(up)
+                            .append(' ').append(right).append(' ').append(down).append('\n');
+                }
+                break;
+        }
+
+        return cases[0] + "\n" + input;
+    }
+
+    private static void appendNumbers(final StringBuilder input, final int count, final LongSupplier next) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) input.append(' ');
+            input.append(next.getAsLong());
+        }
+        input.append('\n');
+    }
+
+    private static void appendProgram(final StringBuilder program, final Random random, final int maxLength) {
+        // Random moves and repeated subprograms, never longer than maxLength
+        var end = program.length() + maxLength;
+
+        while (program.length() < end) {
+            if (end - program.length() > 4 && random.nextInt(4) == 0) {
+                program.append((char) ('2' + random.nextInt(8))).append('(');
+                appendProgram(program, random, 1 + random.nextInt(end - program.length() - 2));
+                program.append(')');
+            } else {
+                program.append("NSEW".charAt(random.nextInt(4)));
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        // Summed over every live thread, as some engines (like the sharded rA.D trie) allocate on the common pool
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static String toJson(final Map<String, Result> results) {
+        return results.entrySet().stream()
+                .map(entry -> String.format(Locale.ROOT, "  \"%s\": {\"casesPerSecond\": %.1f, \"allocatedBytesPerCase\": %.0f}",
+                        entry.getKey(), entry.getValue().casesPerSecond, entry.getValue().allocatedBytesPerCase))
+                .collect(Collectors.joining(",\n", "{\n", "\n}\n"));
+    }
+
+    private static Map<String, Result> fromJson(final String json) {
+        var baselines = new HashMap<String, Result>();
+
+        var matcher = BASELINE.matcher(json);
+        while (matcher.find()) {
+            baselines.put(matcher.group(1),
+                    new Result(Double.parseDouble(matcher.group(2)), Double.parseDouble(matcher.group(3))));
+        }
+
+        return baselines;
+    }
+
+    private static class Result {
+        private final double casesPerSecond;
+        private final double allocatedBytesPerCase;
+
+        private Result(final double casesPerSecond, final double allocatedBytesPerCase) {
+            this.casesPerSecond = casesPerSecond;
+            this.allocatedBytesPerCase = allocatedBytesPerCase;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f cases/s, %.0f bytes/case", casesPerSecond, allocatedBytesPerCase);
+        }
+    }
+}
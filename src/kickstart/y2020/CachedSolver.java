@@ -0,0 +1,44 @@
+/*
+Solves an input case by case, looking every case up in a ResultCache first, so only the cases never seen before are
+actually solved.
+ */
+package kickstart.y2020;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+public class CachedSolver {
+    private final ResultCache cache;
+
+    public CachedSolver(final ResultCache cache) {
+        this.cache = cache;
+    }
+
+    public void solveAll(final Problem problem, final InputStream input, final PrintStream out) throws Exception {
+        var in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        var cases = Integer.parseInt(in.readLine().trim());
+
+        for (int caseN = 0; caseN < cases; caseN++) {
+            var lines = problem.readCase(in);
+            if (lines == null) throw new IOException("Input ended after " + caseN + " cases");
+
+            var key = ResultCache.key(problem, lines);
+
+            var answer = cache.get(key);
+            if (answer == null) {
+                answer = problem.solveCase(lines);
+                cache.put(key, answer);
+            }
+
+            out.println("Case #" + (caseN + 1) + ": " + answer);
+        }
+    }
+
+    public ResultCache cache() {
+        return cache;
+    }
+}
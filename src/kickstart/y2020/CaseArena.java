@@ -0,0 +1,161 @@
+/*
+Loading a big input case by case as Lists of Integers, int matrices or Strings puts all of it in the heap, and the GC
+pauses grow with the size of the test file. The arena memory-maps the input file and parses every number in it into
+a single buffer outside of the heap, keeping only the position where every case starts. The solvers then read the
+numbers of a case straight from a slice of that buffer, so the heap used doesn't depend on how big the input is.
+
+It works for the problems whose input is only numbers: rA.A, rA.B, rA.C, rB.A and rB.B.
+
+Usage:
+java kickstart.y2020.CaseArena rA.C input.txt
+ */
+package kickstart.y2020;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class CaseArena {
+    // Files are mapped in windows, as a single mapping can't be bigger than 2GB
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final Problem problem;
+    private final LongBuffer numbers;
+    private final int[] caseStarts;
+
+    private CaseArena(final Problem problem, final LongBuffer numbers, final int[] caseStarts) {
+        this.problem = problem;
+        this.numbers = numbers;
+        this.caseStarts = caseStarts;
+    }
+
+    public static CaseArena load(final Path input, final Problem problem) throws IOException {
+        // The first pass counts the numbers, so the second one can parse them to a buffer of the exact size
+        var count = parseNumbers(input, null);
+        if (count > Integer.MAX_VALUE / Long.BYTES) throw new IOException("Too many numbers for one arena: " + count);
+
+        var numbers = ByteBuffer.allocateDirect((int) count * Long.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer();
+        parseNumbers(input, numbers);
+
+        var cases = (int) numbers.get(0);
+        var caseStarts = new int[cases + 1];
+        caseStarts[0] = 1;
+        for (int caseN = 0; caseN < cases; caseN++) {
+            caseStarts[caseN + 1] = caseStarts[caseN] + numbersInCase(problem, numbers, caseStarts[caseN]);
+        }
+
+        return new CaseArena(problem, numbers, caseStarts);
+    }
+
+    public int cases() {
+        return caseStarts.length - 1;
+    }
+
+    public LongBuffer numbers(final int caseN) {
+        return numbers.slice(caseStarts[caseN], caseStarts[caseN + 1] - caseStarts[caseN]);
+    }
+
+    public String solve(final int caseN) {
+        var numbers = numbers(caseN);
+
+        switch (problem) {
+            case ALLOCATION:
+                return String.valueOf(kickstart.y2020.rA.A.Solution.solve(
+                        numbers.slice(2, (int) numbers.get(0)), numbers.get(1)));
+            case PLATES:
+                return String.valueOf(kickstart.y2020.rA.B.Solution.solve(numbers.slice(3, numbers.limit() - 3),
+                        (int) numbers.get(0), (int) numbers.get(1), (int) numbers.get(2)));
+            case WORKOUT:
+                return String.valueOf(kickstart.y2020.rA.C.Solution.solve(
+                        numbers.slice(2, (int) numbers.get(0)), numbers.get(1)));
+            case BIKE_TOUR:
+                return String.valueOf(kickstart.y2020.rB.A.Solution.solve(numbers.slice(1, (int) numbers.get(0))));
+            case BUS_ROUTES:
+                return String.valueOf(kickstart.y2020.rB.B.Solution.solve(
+                        numbers.slice(2, (int) numbers.get(0)), numbers.get(1)));
+            default:
+                throw new IllegalArgumentException(problem.id + " input is not only numbers");
+        }
+    }
+
+    private static int numbersInCase(final Problem problem, final LongBuffer numbers, final int start) {
+        var first = (int) numbers.get(start);
+
+        switch (problem) {
+            case ALLOCATION:
+            case WORKOUT:
+            case BUS_ROUTES:
+                return 2 + first;
+            case PLATES:
+                return 3 + first * (int) numbers.get(start + 1);
+            case BIKE_TOUR:
+                return 1 + first;
+            default:
+                throw new IllegalArgumentException(problem.id + " input is not only numbers");
+        }
+    }
+
+    private static long parseNumbers(final Path input, final LongBuffer numbers) throws IOException {
+        // Parses every number in the file into numbers (or just counts them if it's null)
+        var count = 0L;
+        var number = 0L;
+        var negative = false;
+        var inNumber = false;
+
+        try (var channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            var size = channel.size();
+
+            for (long windowStart = 0; windowStart < size; windowStart += WINDOW_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(WINDOW_BYTES, size - windowStart));
+
+                while (window.hasRemaining()) {
+                    var read = window.get();
+
+                    if (read >= '0' && read <= '9') {
+                        number = number * 10 + (read - '0');
+                        inNumber = true;
+                    } else if (read == '-') {
+                        negative = true;
+                    } else {
+                        if (inNumber) {
+                            if (numbers != null) numbers.put((int) count, negative ? -number : number);
+                            count++;
+                        }
+                        number = 0;
+                        negative = false;
+                        inNumber = false;
+                    }
+                }
+            }
+        }
+
+        if (inNumber) {
+            if (numbers != null) numbers.put((int) count, negative ? -number : number);
+            count++;
+        }
+
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var problem = Problem.byId(args[0]).orElseThrow(() -> new IllegalArgumentException("Unknown problem " + args[0]));
+        var arena = load(Path.of(args[1]), problem);
+        var out = new PrintStream(new BufferedOutputStream(System.out), false);
+
+        for (int caseN = 0; caseN < arena.cases(); caseN++) {
+            out.println("Case #" + (caseN + 1) + ": " + arena.solve(caseN));
+        }
+
+        out.flush();
+    }
+}
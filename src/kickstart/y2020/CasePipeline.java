@@ -0,0 +1,192 @@
+/*
+Solves an input with three stages that run at the same time, so reading, solving and printing don't wait on each other:
+- A reader thread splits the input in cases and puts them in a bounded queue.
+- A pool of workers takes the cases from the queue and solves them.
+- The calling thread writes the answers in the order of the cases as soon as they are ready.
+
+Every stage is bounded, so an input much bigger than the memory streams through: when the workers can't keep up, the
+queue fills and the reader waits. The answers finished out of order wait in a reorder window, and a worker whose case
+is too far ahead of the next one to write waits for the writer. That never blocks the case the writer is waiting on:
+the cases leave the queue in order, so that case is always inside the window.
+
+Usage:
+java kickstart.y2020.CasePipeline rA.D [workers] < input.txt
+ */
+package kickstart.y2020;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class CasePipeline {
+    private static final int CASES_PER_WORKER = 4;
+
+    private final Problem problem;
+    private final int workers;
+    private final int queueCapacity;
+    private final int reorderWindow;
+
+    public CasePipeline(final Problem problem, final int workers) {
+        this(problem, workers, workers * CASES_PER_WORKER, workers * CASES_PER_WORKER);
+    }
+
+    public CasePipeline(final Problem problem, final int workers, final int queueCapacity, final int reorderWindow) {
+        if (workers < 1 || queueCapacity < 1 || reorderWindow < 1) {
+            throw new IllegalArgumentException("The workers, the queue and the window need at least 1 slot");
+        }
+
+        this.problem = problem;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.reorderWindow = reorderWindow;
+    }
+
+    public void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        var in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        var cases = Integer.parseInt(in.readLine().trim());
+
+        var queue = new ArrayBlockingQueue<Job>(queueCapacity);
+        var answers = new ReorderBuffer(reorderWindow);
+        var pool = Executors.newFixedThreadPool(workers + 1);
+
+        try {
+            pool.submit(() -> read(in, cases, queue, answers));
+            for (int i = 0; i < workers; i++) {
+                pool.submit(() -> solve(queue, answers));
+            }
+
+            for (int caseN = 0; caseN < cases; caseN++) {
+                out.println("Case #" + (caseN + 1) + ": " + answers.take());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void read(final BufferedReader in, final int cases, final BlockingQueue<Job> queue,
+                      final ReorderBuffer answers) {
+        try {
+            for (int caseN = 0; caseN < cases; caseN++) {
+                var lines = problem.readCase(in);
+                if (lines == null) throw new IllegalStateException("Input ended after " + caseN + " cases");
+
+                queue.put(new Job(caseN, lines));
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (Throwable e) {
+            answers.fail(e);
+        }
+
+        try {
+            for (int i = 0; i < workers; i++) {
+                queue.put(Job.END);
+            }
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    private void solve(final BlockingQueue<Job> queue, final ReorderBuffer answers) {
+        try {
+            for (var job = queue.take(); job != Job.END; job = queue.take()) {
+                answers.put(job.caseN, problem.solveCase(job.lines));
+            }
+        } catch (InterruptedException ignored) {
+        } catch (Throwable e) {
+            // Errors too (like a StackOverflowError on a deep case), or take() would wait for the answer forever
+            answers.fail(e);
+        }
+    }
+
+    private static class Job {
+        private static final Job END = new Job(-1, null);
+
+        private final int caseN;
+        private final List<String> lines;
+
+        private Job(final int caseN, final List<String> lines) {
+            this.caseN = caseN;
+            this.lines = lines;
+        }
+    }
+
+    private static class ReorderBuffer {
+        // The answers of the cases next to write up to next + window - 1, in a ring
+        private final String[] answers;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition slotFree = lock.newCondition();
+        private final Condition nextReady = lock.newCondition();
+        private int next = 0;
+        private Exception failure;
+
+        private ReorderBuffer(final int window) {
+            this.answers = new String[window];
+        }
+
+        private void put(final int caseN, final String answer) throws InterruptedException {
+            lock.lock();
+            try {
+                while (caseN >= next + answers.length && failure == null) {
+                    slotFree.await();
+                }
+                // Nothing is written after a failure, as the slot might be the one of a case that is still missing
+                if (failure != null) return;
+
+                answers[caseN % answers.length] = answer;
+                if (caseN == next) nextReady.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private String take() throws Exception {
+            lock.lock();
+            try {
+                var slot = next % answers.length;
+                while (answers[slot] == null) {
+                    if (failure != null) throw failure;
+                    nextReady.await();
+                }
+
+                var answer = answers[slot];
+                answers[slot] = null;
+                next++;
+                slotFree.signalAll();
+
+                return answer;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void fail(final Throwable e) {
+            lock.lock();
+            try {
+                if (failure == null) failure = e instanceof Exception ? (Exception) e : new ExecutionException(e);
+                nextReady.signal();
+                slotFree.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var problem = Problem.byId(args[0]).orElseThrow(() -> new IllegalArgumentException("Unknown problem " + args[0]));
+        var workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var out = new PrintStream(new BufferedOutputStream(System.out), false);
+
+        new CasePipeline(problem, workers).solveAll(System.in, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+Every problem of the year with the entry point of its Solution, so the tools in this package can run any of them by its
+id (the round and the problem, like rA.D) without knowing anything else about them.
+
+They also know how many lines each case takes in the input (it's always the first line of the case plus either a
+fixed number of lines or as many as the first number of the case says), so the tools can split an input in cases and
+solve them one by one.
+ */
+package kickstart.y2020;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public enum Problem {
+    ALLOCATION("rA.A", kickstart.y2020.rA.A.Solution::solveAll, firstLine -> 1),
+    PLATES("rA.B", kickstart.y2020.rA.B.Solution::solveAll, Problem::firstNumber),
+    WORKOUT("rA.C", kickstart.y2020.rA.C.Solution::solveAll, firstLine -> 1),
+    BUNDLING("rA.D", kickstart.y2020.rA.D.Solution::solveAll, Problem::firstNumber),
+    BIKE_TOUR("rB.A", kickstart.y2020.rB.A.Solution::solveAll, firstLine -> 1),
+    BUS_ROUTES("rB.B", kickstart.y2020.rB.B.Solution::solveAll, firstLine -> 1),
+    ROBOT_PATH_DECODING("rB.C", kickstart.y2020.rB.C.Solution::solveAll, firstLine -> 0),
+    WANDERING_ROBOT("rB.D", kickstart.y2020.rB.D.Solution::solveAll, firstLine -> 0);
+
+    private static final String CASE_PREFIX = "Case #1: ";
+
+    public final String id;
+    private final Solver solver;
+    private final CaseFraming framing;
+
+    Problem(final String id, final Solver solver, final CaseFraming framing) {
+        this.id = id;
+        this.solver = solver;
+        this.framing = framing;
+    }
+
+    public void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        solver.solveAll(input, out);
+    }
+
+    public List<String> readCase(final BufferedReader in) throws IOException {
+        // The lines of the next case, or null if there are no more
+        var firstLine = in.readLine();
+        if (firstLine == null) return null;
+
+        var lines = new ArrayList<String>();
+        lines.add(firstLine);
+
+        var linesAfter = framing.linesAfter(firstLine);
+        for (int i = 0; i < linesAfter; i++) {
+            var line = in.readLine();
+            if (line == null) throw new IOException("Case of " + id + " ended after " + lines.size() + " lines");
+            lines.add(line);
+        }
+
+        return lines;
+    }
+
+    public String solveCase(final List<String> lines) throws Exception {
+        // Runs the solver on an input with just this case, and returns what goes after "Case #x: "
+        var input = new StringBuilder("1\n");
+        for (String line : lines) {
+            input.append(line).append('\n');
+        }
+
+        var output = new ByteArrayOutputStream();
+        var out = new PrintStream(output, false, StandardCharsets.UTF_8);
+        solveAll(new ByteArrayInputStream(input.toString().getBytes(StandardCharsets.UTF_8)), out);
+        out.flush();
+
+        var result = output.toString(StandardCharsets.UTF_8).trim();
+        if (!result.startsWith(CASE_PREFIX)) throw new IllegalStateException("Unexpected output of " + id + ": " + result);
+
+        return result.substring(CASE_PREFIX.length());
+    }
+
+    public static Optional<Problem> byId(final String id) {
+        return Arrays.stream(values())
+                .filter(problem -> problem.id.equals(id))
+                .findFirst();
+    }
+
+    private static int firstNumber(final String line) {
+        return Integer.parseInt(line.trim().split(" ")[0]);
+    }
+
+    @FunctionalInterface
+    private interface Solver {
+        void solveAll(InputStream input, PrintStream out) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface CaseFraming {
+        int linesAfter(String firstLine);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+Regression suites send the same cases over and over, so there is no need to solve them again: the answer of a case only
+depends on the problem and the bytes of the case. The key of a case is the SHA-256 of the problem id and the lines of
+the case (trimmed, to ignore trailing spaces and \r), and the value is the answer (what goes after "Case #x: ").
+
+There are two tiers:
+* In memory, the last maxEntries answers used (a LinkedHashMap in access order evicts the least recently used).
+* Optionally, a file mapped in memory that survives restarts. It's a fixed number of fixed size slots, and every key
+  has a single slot (taken from its hash, which is already random). A new answer overwrites whatever was in its slot,
+  and answers too long for a slot are just not stored on disk.
+ */
+package kickstart.y2020;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResultCache implements Closeable {
+    private final LinkedHashMap<String, String> memory;
+    private final DiskTier disk;
+
+    private long hits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public ResultCache(final int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    public ResultCache(final int maxEntries, final DiskTier disk) {
+        this.disk = disk;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                if (size() <= maxEntries) return false;
+
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public static byte[] key(final Problem problem, final List<String> caseLines) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(problem.id.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+
+            for (String line : caseLines) {
+                digest.update(line.trim().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+
+    public synchronized String get(final byte[] key) {
+        // The answer for the key, or null if it isn't cached
+        var hexKey = HexFormat.of().formatHex(key);
+
+        var answer = memory.get(hexKey);
+        if (answer != null) {
+            hits++;
+            return answer;
+        }
+
+        if (disk != null) {
+            answer = disk.get(key);
+            if (answer != null) {
+                hits++;
+                diskHits++;
+                memory.put(hexKey, answer);
+                return answer;
+            }
+        }
+
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(final byte[] key, final String answer) {
+        memory.put(HexFormat.of().formatHex(key), answer);
+
+        if (disk != null) {
+            disk.put(key, answer);
+        }
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        // Only the answers the memory tier dropped, the disk tier counts its own in diskOverwrites()
+        return evictions;
+    }
+
+    public synchronized long diskOverwrites() {
+        return disk != null ? disk.overwrites : 0;
+    }
+
+    public synchronized String stats() {
+        return "hits=" + hits + " (disk=" + diskHits + ") misses=" + misses
+                + " evictions=" + evictions + " diskOverwrites=" + diskOverwrites()
+                + " entries=" + memory.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (disk != null) {
+            disk.force();
+        }
+    }
+
+    public static class DiskTier {
+        private static final int MAGIC = 0x4B53_5243;
+        private static final int VERSION = 1;
+        private static final int HEADER_BYTES = 16;
+        private static final int KEY_BYTES = 32;
+        // used flag + key + answer length
+        private static final int SLOT_HEADER_BYTES = 1 + KEY_BYTES + 2;
+
+        private final MappedByteBuffer slots;
+        private final int slotCount;
+        private final int slotBytes;
+        public long overwrites = 0;
+
+        private DiskTier(final MappedByteBuffer slots, final int slotCount, final int slotBytes) {
+            this.slots = slots;
+            this.slotCount = slotCount;
+            this.slotBytes = slotBytes;
+        }
+
+        public static DiskTier open(final Path file, final int slotCount, final int slotBytes) throws IOException {
+            // Reuses the file if it was created with the same layout, starts from an empty one otherwise
+            try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                var size = HEADER_BYTES + (long) slotCount * slotBytes;
+                if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Cache files are limited to 2GB");
+
+                var reuse = channel.size() == size;
+
+                var mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (reuse) {
+                    reuse = mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION
+                            && mapped.getInt(8) == slotCount && mapped.getInt(12) == slotBytes;
+                }
+
+                if (!reuse) {
+                    for (long i = 0; i < size; i++) {
+                        mapped.put((int) i, (byte) 0);
+                    }
+                    mapped.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, slotCount).putInt(12, slotBytes);
+                }
+
+                return new DiskTier(mapped, slotCount, slotBytes);
+            }
+        }
+
+        private String get(final byte[] key) {
+            var slot = slotOf(key);
+            if (slots.get(slot) == 0 || !keyInSlot(slot, key)) return null;
+
+            var length = Short.toUnsignedInt(slots.getShort(slot + 1 + KEY_BYTES));
+            var answer = new byte[length];
+            slots.get(slot + SLOT_HEADER_BYTES, answer);
+
+            return new String(answer, StandardCharsets.UTF_8);
+        }
+
+        private void put(final byte[] key, final String answer) {
+            var bytes = answer.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > slotBytes - SLOT_HEADER_BYTES) return;
+
+            var slot = slotOf(key);
+            if (slots.get(slot) != 0 && !keyInSlot(slot, key)) {
+                overwrites++;
+            }
+
+            slots.put(slot, (byte) 0);
+            slots.put(slot + 1, key);
+            slots.putShort(slot + 1 + KEY_BYTES, (short) bytes.length);
+            slots.put(slot + SLOT_HEADER_BYTES, bytes);
+            slots.put(slot, (byte) 1);
+        }
+
+        private boolean keyInSlot(final int slot, final byte[] key) {
+            var storedKey = new byte[KEY_BYTES];
+            slots.get(slot + 1, storedKey);
+            return Arrays.equals(storedKey, key);
+        }
+
+        private int slotOf(final byte[] key) {
+            var hash = ByteBuffer.wrap(key).getLong();
+            return HEADER_BYTES + (int) Long.remainderUnsigned(hash, slotCount) * slotBytes;
+        }
+
+        private void force() {
+            slots.force();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+A single JVM caps how big an input it can solve (mostly rA.D and rB.C, which keep big structures for every case). The
+coordinator splits the input in shards of consecutive cases, solves every shard in its own worker JVM (or sends them
+to SolverDaemons) and merges the answers back in the order of the input, renumbering the cases.
+
+Every shard is solved independently, so when one fails (the worker crashes, runs out of memory or doesn't answer
+every case) only that shard is tried again. That includes a shard that takes longer than --timeout seconds (a worker
+stuck on a case, or a daemon that stopped answering): its worker is killed, or its session closed, and it counts as
+failed.
+
+Usage:
+java kickstart.y2020.ShardCoordinator rA.D input.txt --shards 8
+java kickstart.y2020.ShardCoordinator rA.D input.txt --shards 8 --jvm-options "-Xmx2g"
+java kickstart.y2020.ShardCoordinator rA.D input.txt --shards 8 --unix /tmp/kickstart.sock
+java kickstart.y2020.ShardCoordinator rA.D input.txt --shards 8 --daemon solver-host:7777 --retries 3 --timeout 60
+
+(a daemon on another host has to be started with --bind, as it only listens on the loopback address by default)
+ */
+package kickstart.y2020;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+public class ShardCoordinator {
+    private static final int DEFAULT_RETRIES = 2;
+    private static final int DEFAULT_TIMEOUT_SECONDS = 600;
+
+    private final Problem problem;
+    private final int shards;
+    private final int retries;
+    private final Duration timeout;
+    private final SocketAddress daemon;
+    private final List<String> jvmOptions;
+
+    public ShardCoordinator(final Problem problem, final int shards, final int retries, final Duration timeout,
+                            final SocketAddress daemon, final List<String> jvmOptions) {
+        this.problem = problem;
+        this.shards = shards;
+        this.retries = retries;
+        this.timeout = timeout;
+        this.daemon = daemon;
+        this.jvmOptions = jvmOptions;
+    }
+
+    public void solveAll(final Path input, final PrintStream out) throws Exception {
+        var workDir = Files.createTempDirectory("kickstart-shards");
+
+        try {
+            var shardCases = split(input, workDir);
+            var pool = Executors.newFixedThreadPool(shardCases.size());
+            var outputs = new ArrayList<Future<Path>>();
+
+            try {
+                for (int shard = 0; shard < shardCases.size(); shard++) {
+                    final var shardN = shard;
+                    outputs.add(pool.submit(() -> solveShard(workDir, shardN, shardCases.get(shardN))));
+                }
+
+                var casesBefore = 0;
+                for (int shard = 0; shard < shardCases.size(); shard++) {
+                    casesBefore = merge(outputs.get(shard).get(), casesBefore, out);
+                }
+            } catch (ExecutionException e) {
+                // The shard's own exception if it threw one, errors (like running out of memory) stay wrapped
+                if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+                throw e;
+            } finally {
+                pool.shutdownNow();
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(workDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private List<Integer> split(final Path input, final Path workDir) throws IOException {
+        // Writes the shards as inputs of their own, and returns how many cases each one has
+        var shardCases = new ArrayList<Integer>();
+
+        try (var in = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            var cases = Integer.parseInt(in.readLine().trim());
+            var shardsUsed = Math.max(1, Math.min(shards, cases));
+
+            for (int shard = 0; shard < shardsUsed; shard++) {
+                var casesInShard = (int) ((long) cases * (shard + 1) / shardsUsed - (long) cases * shard / shardsUsed);
+                writeShard(in, inputOf(workDir, shard), casesInShard);
+                shardCases.add(casesInShard);
+            }
+        }
+
+        return shardCases;
+    }
+
+    private void writeShard(final BufferedReader in, final Path shardInput, final int cases) throws IOException {
+        try (var shard = new PrintWriter(Files.newBufferedWriter(shardInput, StandardCharsets.UTF_8))) {
+            shard.println(cases);
+
+            for (int caseN = 0; caseN < cases; caseN++) {
+                var lines = problem.readCase(in);
+                if (lines == null) throw new IOException("Input of " + problem.id + " ended before all its cases");
+
+                lines.forEach(shard::println);
+            }
+        }
+    }
+
+    private Path solveShard(final Path workDir, final int shard, final int cases) throws Exception {
+        var input = inputOf(workDir, shard);
+        var output = workDir.resolve("shard-" + shard + ".out");
+        Exception lastFailure = null;
+
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            try {
+                if (daemon != null) solveOnDaemon(input, output);
+                else solveOnWorker(input, output);
+
+                checkAnswers(output, cases);
+                return output;
+            } catch (IOException e) {
+                lastFailure = e;
+                System.err.println("Shard " + shard + " failed (attempt " + (attempt + 1) + "): " + e.getMessage());
+            }
+        }
+
+        throw new IOException("Shard " + shard + " failed after " + (retries + 1) + " attempts", lastFailure);
+    }
+
+    private void solveOnWorker(final Path input, final Path output) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), CasePipeline.class.getName(), problem.id,
+                String.valueOf(Math.max(1, Runtime.getRuntime().availableProcessors() / shards))));
+
+        var worker = new ProcessBuilder(command)
+                .redirectInput(input.toFile())
+                .redirectOutput(output.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        try {
+            if (!worker.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Worker didn't finish in " + timeout.toSeconds() + " s");
+            }
+        } finally {
+            // Killed if it timed out, or if another shard failed for good and nobody is waiting for this one
+            worker.destroyForcibly();
+        }
+
+        if (worker.exitValue() != 0) throw new IOException("Worker exited with " + worker.exitValue());
+    }
+
+    private void solveOnDaemon(final Path input, final Path output) throws IOException, InterruptedException {
+        // The daemon writes the answers while it still reads the input, so sending all of it before reading would fill
+        // the socket buffers both ways and leave the two sides blocked on write. The input goes from its own thread
+        // while another one reads the answers, and closing the session at the timeout unblocks both
+        var transfer = Executors.newFixedThreadPool(2);
+
+        try (var session = daemon instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                : SocketChannel.open()) {
+            session.connect(daemon);
+
+            var sent = transfer.submit(() -> {
+                var request = Channels.newOutputStream(session);
+                request.write((problem.id + "\n").getBytes(StandardCharsets.UTF_8));
+                Files.copy(input, request);
+                request.flush();
+                session.shutdownOutput();
+                return null;
+            });
+            var received = transfer.submit(() ->
+                    Files.copy(Channels.newInputStream(session), output, StandardCopyOption.REPLACE_EXISTING));
+
+            var deadline = System.nanoTime() + timeout.toNanos();
+            await(received, deadline);
+            await(sent, deadline);
+        } finally {
+            transfer.shutdownNow();
+        }
+    }
+
+    private void await(final Future<?> transfer, final long deadline) throws IOException, InterruptedException {
+        try {
+            transfer.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Daemon didn't answer in " + timeout.toSeconds() + " s");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Session with the daemon failed", e.getCause());
+        }
+    }
+
+    private static void checkAnswers(final Path output, final int cases) throws IOException {
+        var answers = 0;
+
+        try (var in = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            for (var line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.startsWith("ERROR")) throw new IOException(line);
+                if (line.startsWith("Case #")) answers++;
+            }
+        }
+
+        if (answers != cases) throw new IOException("Got " + answers + " answers for " + cases + " cases");
+    }
+
+    private static int merge(final Path output, final int casesBefore, final PrintStream out) throws IOException {
+        // Copies the answers of a shard renumbering its cases, and returns the cases written so far
+        var cases = casesBefore;
+
+        try (var in = Files.newBufferedReader(output, StandardCharsets.UTF_8)) {
+            for (var line = in.readLine(); line != null; line = in.readLine()) {
+                if (line.startsWith("Case #")) {
+                    cases++;
+                    out.println("Case #" + cases + line.substring(line.indexOf(':')));
+                } else {
+                    out.println(line);
+                }
+            }
+        }
+
+        return cases;
+    }
+
+    private static Path inputOf(final Path workDir, final int shard) {
+        return workDir.resolve("shard-" + shard + ".in");
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new HashMap<String, String>();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+
+        var problem = args.length >= 2 ? Problem.byId(args[0]) : Optional.<Problem>empty();
+        if (problem.isEmpty() || args.length % 2 != 0 || (options.containsKey("--unix") && options.containsKey("--daemon"))) {
+            System.err.println("Usage: ShardCoordinator <problem> <input> [--shards <shards>] [--retries <retries>]"
+                    + " [--timeout <seconds>] [--jvm-options <options> | --unix <socket path> | --daemon <host:port>]");
+            System.exit(2);
+        }
+
+        SocketAddress daemon = null;
+        if (options.containsKey("--unix")) {
+            daemon = UnixDomainSocketAddress.of(options.get("--unix"));
+        } else if (options.containsKey("--daemon")) {
+            var hostAndPort = options.get("--daemon").split(":");
+            daemon = new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+        }
+
+        var shards = Integer.parseInt(options.getOrDefault("--shards",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        var retries = Integer.parseInt(options.getOrDefault("--retries", String.valueOf(DEFAULT_RETRIES)));
+        var timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("--timeout",
+                String.valueOf(DEFAULT_TIMEOUT_SECONDS))));
+        var jvmOptions = options.containsKey("--jvm-options")
+                ? List.of(options.get("--jvm-options").trim().split("\\s+"))
+                : List.<String>of();
+
+        var out = new PrintStream(new BufferedOutputStream(System.out), false);
+        new ShardCoordinator(problem.get(), shards, retries, timeout, daemon, jvmOptions).solveAll(Path.of(args[1]), out);
+        out.flush();
+    }
+}
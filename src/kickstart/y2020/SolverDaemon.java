@@ -0,0 +1,161 @@
+/*
+Every Solution is a one-shot main, so running thousands of small inputs pays the JVM startup, the class loading and a
+cold JIT (and for rB.D, filling the logFact table) every single time. The daemon keeps all the solvers loaded in a
+single JVM and runs every job it gets over a local socket, each connection in its own thread.
+
+Protocol:
+The client sends the problem id (rA.A ... rB.D) in the first line, the input of the problem after it, and then closes
+its side of the connection. The daemon answers with the output of the solver (or a line starting with ERROR if it
+couldn't solve it) and closes the connection. Sending just "stats" returns the counters of the cache.
+
+With --cache, every case goes through a ResultCache first, so repeated cases are answered without solving them again
+(and with --cache-file, the answers are also kept in a file that survives restarts).
+
+Usage:
+java kickstart.y2020.SolverDaemon --unix /tmp/kickstart.sock
+java kickstart.y2020.SolverDaemon --port 7777               (listens on the loopback address only)
+java kickstart.y2020.SolverDaemon --port 7777 --bind 0.0.0.0 (listens on every address, for remote coordinators)
+java kickstart.y2020.SolverDaemon --unix /tmp/kickstart.sock --cache 100000 --cache-file /tmp/kickstart.cache
+
+{ echo rA.D; cat input.txt; } | nc -N -U /tmp/kickstart.sock
+ */
+package kickstart.y2020;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SolverDaemon {
+
+    private static final int DISK_CACHE_SLOT_BYTES = 256;
+    private static final int DEFAULT_DISK_CACHE_SLOTS = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        var options = new HashMap<String, String>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+
+        if (args.length % 2 != 0 || options.containsKey("--unix") == options.containsKey("--port")
+                || (options.containsKey("--bind") && !options.containsKey("--port"))) {
+            System.err.println("Usage: SolverDaemon (--unix <socket path> | --port <port> [--bind <address>])"
+                    + " [--cache <entries> [--cache-file <path> [--cache-slots <slots>]]]");
+            System.exit(2);
+        }
+
+        var cachedSolver = options.containsKey("--cache") ? new CachedSolver(openCache(options)) : null;
+        var sessions = newSessionExecutor();
+
+        try (var server = options.containsKey("--unix")
+                ? openUnix(Path.of(options.get("--unix")))
+                : openPort(bindAddress(options), Integer.parseInt(options.get("--port")))) {
+            System.err.println("Solving on " + server.getLocalAddress());
+
+            while (true) {
+                var session = server.accept();
+                sessions.submit(() -> handle(session, cachedSolver));
+            }
+        } finally {
+            sessions.shutdown();
+            if (cachedSolver != null) cachedSolver.cache().close();
+        }
+    }
+
+    private static ResultCache openCache(final Map<String, String> options) throws IOException {
+        var entries = Integer.parseInt(options.get("--cache"));
+        if (!options.containsKey("--cache-file")) return new ResultCache(entries);
+
+        var slots = Integer.parseInt(options.getOrDefault("--cache-slots", String.valueOf(DEFAULT_DISK_CACHE_SLOTS)));
+        var disk = ResultCache.DiskTier.open(Path.of(options.get("--cache-file")), slots, DISK_CACHE_SLOT_BYTES);
+        return new ResultCache(entries, disk);
+    }
+
+    private static void handle(final SocketChannel session, final CachedSolver cachedSolver) {
+        try (session) {
+            var input = new BufferedInputStream(Channels.newInputStream(session));
+            var out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(session)), false,
+                    StandardCharsets.UTF_8);
+
+            var problemId = readLine(input);
+            var problem = Problem.byId(problemId);
+
+            if (problemId.equals("stats")) {
+                out.println(cachedSolver != null ? cachedSolver.cache().stats() : "ERROR No cache");
+            } else if (problem.isEmpty()) {
+                out.println("ERROR Unknown problem " + problemId);
+            } else {
+                try {
+                    if (cachedSolver != null) cachedSolver.solveAll(problem.get(), input, out);
+                    else problem.get().solveAll(input, out);
+                } catch (Exception e) {
+                    out.println("ERROR " + e);
+                }
+            }
+
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Session failed: " + e);
+        }
+    }
+
+    private static InetAddress bindAddress(final Map<String, String> options) throws IOException {
+        // Only the loopback address unless told otherwise, as anyone who can connect can make the daemon work
+        return options.containsKey("--bind")
+                ? InetAddress.getByName(options.get("--bind"))
+                : InetAddress.getLoopbackAddress();
+    }
+
+    private static ServerSocketChannel openUnix(final Path path) throws IOException {
+        Files.deleteIfExists(path);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+            }
+        }));
+
+        return ServerSocketChannel.open(StandardProtocolFamily.UNIX).bind(UnixDomainSocketAddress.of(path));
+    }
+
+    private static ServerSocketChannel openPort(final InetAddress address, final int port) throws IOException {
+        return ServerSocketChannel.open().bind(new InetSocketAddress(address, port));
+    }
+
+    private static ExecutorService newSessionExecutor() {
+        // Virtual threads if the JDK has them (21+), a pool of platform threads otherwise
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static String readLine(final InputStream input) throws IOException {
+        // Byte by byte, so the solver gets the input just after the line
+        var line = new ByteArrayOutputStream();
+        int read;
+
+        while ((read = input.read()) != -1 && read != '\n') {
+            if (read != '\r') line.write(read);
+        }
+
+        return line.toString(StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+A fresh JVM solving a single input pays for loading and linking every class of the solver, and for rB.D, filling the
+logFact table, before solving anything. This prepares both once, so the next runs start closer to a warm one:
+
+--snapshot writes the precomputed tables to a snapshot file, which the solver maps at startup instead of computing them
+again (only rB.D has one, the rest of the solvers only keep tables that depend on their input).
+
+--train runs every solver (or only the ones given) on generated inputs like the BenchmarkGate ones. Run it with
+-XX:ArchiveClassesAtExit and the JVM saves every class the solvers used in a class data sharing archive, which the next
+runs load with -XX:SharedArchiveFile instead of loading and verifying the classes one by one. The JVM only archives
+classes coming from jars, so the classes have to be packed in one first.
+
+Usage:
+java kickstart.y2020.WarmStart --snapshot rB.D.snapshot
+java -XX:ArchiveClassesAtExit=kickstart.jsa -cp kickstart.jar kickstart.y2020.WarmStart --train
+java -XX:ArchiveClassesAtExit=kickstart.jsa -cp kickstart.jar kickstart.y2020.WarmStart --train rA.D,rB.D
+
+java -XX:SharedArchiveFile=kickstart.jsa -cp kickstart.jar -Dkickstart.rB.D.snapshot=rB.D.snapshot kickstart.y2020.rB.D.Solution < input.txt
+ */
+package kickstart.y2020;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class WarmStart {
+    private static final long SEED = 2020;
+    private static final int TRAINING_RUNS = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--snapshot")) {
+            kickstart.y2020.rB.D.Solution.writeSnapshot(Path.of(args[1]));
+            System.err.println("Snapshot of rB.D written to " + args[1]);
+        } else if ((args.length == 1 || args.length == 2) && args[0].equals("--train")) {
+            train(args.length == 2 ? problems(args[1]) : List.of(Problem.values()));
+        } else {
+            System.err.println("Usage: WarmStart (--snapshot <file> | --train [<problem,problem...>])");
+            System.exit(2);
+        }
+    }
+
+    private static void train(final List<Problem> problems) throws Exception {
+        var out = new PrintStream(OutputStream.nullOutputStream());
+
+        for (Problem problem : problems) {
+            var input = BenchmarkGate.generate(problem, new Random(SEED), new int[1]).getBytes(StandardCharsets.UTF_8);
+
+            var start = System.nanoTime();
+            for (int run = 0; run < TRAINING_RUNS; run++) {
+                problem.solveAll(new ByteArrayInputStream(input), out);
+            }
+            System.err.printf("Trained %s in %.1f ms%n", problem.id, (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    private static List<Problem> problems(final String ids) {
+        return Arrays.stream(ids.split(","))
+                .map(id -> Problem.byId(id).orElseThrow(() -> new IllegalArgumentException("Unknown problem " + id)))
+                .collect(Collectors.toList());
+    }
+}
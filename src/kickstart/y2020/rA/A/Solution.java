@@ -9,27 +9,50 @@ Algorithm:
 Because we are looking for the minimum data, the best strategy is to sort the list in ascending order.
 After that, we just start from the cheapest house and continue until we can't buy anymore.
 
+Off-heap input:
+
+When the houses come straight from a buffer we don't want to copy them to the heap just to sort them. Costs are small
+(at most 1000), so we can count how many houses there are of every cost instead, and buy from the cheapest cost up:
+as many houses of each cost as we have, or as many as the money left allows.
+
 Solution passes all tests
  */
 
 package kickstart.y2020.rA.A;
 
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
 
-    public static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
-
     public static void main(String[] args) throws Exception {
-        var cases = readInt();
+        solveAll(System.in, System.out);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        var in = new BufferedReader(new InputStreamReader(input));
+        var cases = readInt(in);
 
         for (int i = 0; i < cases; i++) {
-            var money = readInts().get(1);
-            var houses = readInts().stream().sorted().collect(Collectors.toList());
+            var event = new CaseEvent();
+            event.startCase(i);
+
+            var money = readInts(in).get(1);
+            var houses = readInts(in).stream().sorted().collect(Collectors.toList());
+            event.parseTime = event.phaseDone();
 
             var moneyLeft = money;
             var housesBought = 0;
@@ -39,17 +62,87 @@ public class Solution {
                     housesBought++;
                 }
             }
+            event.solveTime = event.phaseDone();
+
+            out.println("Case #"+(i+1)+": "+housesBought);
+            event.formatTime = event.phaseDone();
+            event.commitCase();
+        }
+    }
 
-            System.out.println("Case #"+(i+1)+": "+housesBought);
+    public static int solve(final LongBuffer houses, final long money) {
+        // Same greedy, counting the houses of every cost instead of sorting them
+        var maxCost = 0;
+        for (int i = 0; i < houses.limit(); i++) {
+            maxCost = (int) Math.max(maxCost, houses.get(i));
+        }
 
+        var housesWithCost = new int[maxCost + 1];
+        for (int i = 0; i < houses.limit(); i++) {
+            housesWithCost[(int) houses.get(i)]++;
         }
+
+        var moneyLeft = money;
+        var housesBought = 0;
+        for (int cost = 1; cost <= maxCost && cost <= moneyLeft; cost++) {
+            var bought = (int) Math.min(housesWithCost[cost], moneyLeft / cost);
+            moneyLeft -= (long) bought * cost;
+            housesBought += bought;
+        }
+
+        return housesBought;
     }
 
-    private static int readInt() throws Exception{
+    private static int readInt(final BufferedReader in) throws Exception{
         return Integer.parseInt(in.readLine());
     }
 
-    private static List<Integer> readInts() throws Exception {
+    private static List<Integer> readInts(final BufferedReader in) throws Exception {
         return Arrays.stream(in.readLine().split(" ")).map(Integer::valueOf).collect(Collectors.toList());
     }
+
+    @Name("kickstart.y2020.rA.A.Case")
+    @Label("Allocation case")
+    @Category({"Kickstart 2020", "Round A"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }
@@ -86,6 +86,21 @@ and the possible maxes, solving a given problem is just calling for Max(0, maxPl
 start with 0 index). This is fast enough to get the large datasets.
 
 
+Bottom-up:
+
+The same Max(stack, plateRemaining) can be filled without recursion, going from the last stack to the first: for every
+stack we only need the maxes of the next one. So we can keep a single array of maxes by remaining plates, and update
+it stack by stack. That only needs memory for P+1 maxes and the sums of one stack, which is handy when the plates are
+read straight from a buffer instead of from a matrix in the heap.
+
+Which one to use:
+
+The recursion tries every possible number of plates for a stack up to the remaining plates (most of them invalid, as a
+stack only has K), so it does about N * P * P steps, while the bottom-up one stops at K plates, N * P * K steps. For a
+small P the recursion only goes through a few states, so every case picks the memo while P / K stays under a ratio.
+Running the solution with --calibrate times both on random stacks and prints the ratio to use with
+-Dkickstart.rA.B.memoMaxRatio.
+
 Solution passes all tests
  */
 
@@ -93,41 +108,83 @@ package kickstart.y2020.rA.B;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
 import java.util.*;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
-    public static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+    // Max P / K solved with the memoized recursion, the bottom-up one takes the rest
+    private static final double MEMO_MAX_RATIO = Double.parseDouble(System.getProperty("kickstart.rA.B.memoMaxRatio", "1"));
+
     public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("--calibrate")) {
+            calibrate(System.out);
+            return;
+        }
+
+        solveAll(System.in, System.out);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        var in = new BufferedReader(new InputStreamReader(input));
         int cases = Integer.parseInt(in.readLine());
 
         for (int i = 0; i < cases; i++) {
-            var data = readInts();
+            var event = new CaseEvent();
+            event.startCase(i);
+
+            var data = readInts(in);
 
             var numberStacks = data.get(0);
             var numberPlates = data.get(1);
             var maxPlates = data.get(2);
 
-            var plates = getPlates(numberStacks, numberPlates);
-            var normalizedPlates = normalizePlates(plates);
-            var cachedMaxes = new int[numberStacks][maxPlates+1];
+            var plates = getPlates(in, numberStacks, numberPlates);
+            event.parseTime = event.phaseDone();
+
+            var engine = Engine.choose(numberPlates, maxPlates);
+            int maxPossible;
+
+            if (engine == Engine.MEMO) {
+                var normalizedPlates = normalizePlates(plates);
+                var cachedMaxes = new CachedMaxes(numberStacks, maxPlates);
 
-            var maxPossible = max(0, maxPlates, normalizedPlates, cachedMaxes);
+                maxPossible = max(0, maxPlates, normalizedPlates, cachedMaxes);
+                event.memoHits = cachedMaxes.hits;
+            } else {
+                maxPossible = solve(toBuffer(plates), numberStacks, numberPlates, maxPlates);
+            }
+            event.solveTime = event.phaseDone();
 
-            System.out.println("Case #"+(i+1)+": "+maxPossible);
+            out.println("Case #"+(i+1)+": "+maxPossible);
+            event.formatTime = event.phaseDone();
+            event.engine = engine.name();
+            event.commitCase();
         }
     }
 
-    private static int max(int stack, int remainingPlates, int[][] normalizedPlates, int[][] cachedMaxes) {
+    private static int max(int stack, int remainingPlates, int[][] normalizedPlates, CachedMaxes cachedMaxes) {
         // Gets the max among all possible choices to the stack being checked and the remaining plates
         // If it's not cached, it will attempt to retrieve it recursively
 
         if (remainingPlates == 0) return 0;
         if (stack >= normalizedPlates.length) return -1;
 
-        var cachedMax = cachedMaxes[stack][remainingPlates];
-        if (cachedMax != 0) return cachedMax;
+        var cachedMax = cachedMaxes.maxes[stack][remainingPlates];
+        if (cachedMax != 0) {
+            cachedMaxes.hits++;
+            return cachedMax;
+        }
 
         var max = -1;
 
@@ -145,11 +202,96 @@ public class Solution {
             }
         }
 
-        cachedMaxes[stack][remainingPlates] = max;
+        cachedMaxes.maxes[stack][remainingPlates] = max;
 
         return max;
     }
 
+    public static int solve(final LongBuffer plates, final int numberStacks, final int numberPlates, final int maxPlates) {
+        // Bottom-up version of max(0, maxPlates), reading plates[stack * numberPlates + plate]
+        var maxes = new int[maxPlates + 1];
+        Arrays.fill(maxes, 1, maxes.length, -1);
+
+        var stackValues = new int[numberPlates + 1];
+
+        for (int stack = numberStacks - 1; stack >= 0; stack--) {
+            for (int plate = 1; plate <= numberPlates; plate++) {
+                stackValues[plate] = stackValues[plate - 1] + (int) plates.get(stack * numberPlates + plate - 1);
+            }
+
+            // Going down the remaining plates, so maxes[remaining - taken] still holds the next stack max
+            for (int remainingPlates = maxPlates; remainingPlates > 0; remainingPlates--) {
+                var max = maxes[remainingPlates];
+
+                for (int taken = 1; taken <= Math.min(numberPlates, remainingPlates); taken++) {
+                    var nextMax = maxes[remainingPlates - taken];
+                    if (nextMax != -1) {
+                        max = Math.max(max, stackValues[taken] + nextMax);
+                    }
+                }
+
+                maxes[remainingPlates] = max;
+            }
+        }
+
+        return maxes[maxPlates];
+    }
+
+    private static LongBuffer toBuffer(int[][] plates) {
+        var buffer = LongBuffer.allocate(plates.length * plates[0].length);
+        for (int[] stack : plates) {
+            for (int plate : stack) {
+                buffer.put(plate);
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static void calibrate(final PrintStream out) {
+        // Times both engines on random stacks with more and more plates to pick, until the bottom-up one wins
+        var random = new Random(2020);
+        var numberStacks = 50;
+        var numberPlates = 30;
+
+        var plates = new int[numberStacks][numberPlates];
+        for (int[] stack : plates) {
+            Arrays.setAll(stack, plate -> 1 + random.nextInt(100));
+        }
+
+        // Warming both up first, so the first ratio doesn't time the JIT
+        for (int run = 0; run < 10; run++) {
+            max(0, numberPlates, normalizePlates(plates), new CachedMaxes(numberStacks, numberPlates));
+            solve(toBuffer(plates), numberStacks, numberPlates, numberPlates);
+        }
+
+        // The last ratio the memo was measured winning at, 0 (no memo) when bottom-up already wins the first one
+        var memoMaxRatio = 0.0;
+        for (var ratio = 1.0 / 8; ratio <= numberStacks; ratio *= 2) {
+            var maxPlates = Math.max(1, (int) (numberPlates * ratio));
+
+            var memoTime = timeBestOf(() -> max(0, maxPlates, normalizePlates(plates), new CachedMaxes(numberStacks, maxPlates)));
+            var bottomUpTime = timeBestOf(() -> solve(toBuffer(plates), numberStacks, numberPlates, maxPlates));
+            out.printf("P/K %8.4f  memo %8.3f ms  bottom-up %8.3f ms%n", ratio, memoTime / 1e6, bottomUpTime / 1e6);
+
+            if (bottomUpTime < memoTime) break;
+            memoMaxRatio = ratio;
+        }
+
+        out.println("-Dkickstart.rA.B.memoMaxRatio=" + memoMaxRatio);
+    }
+
+    private static long timeBestOf(final Runnable engine) {
+        var best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            var start = System.nanoTime();
+            engine.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+
     private static int val(int stack, int plate, int[][] normalizedPlates) {
         //Retrieves the value of the stack indicated at the plate given.
 
@@ -174,12 +316,12 @@ public class Solution {
         return normalizedPlates;
     }
 
-    private static int[][] getPlates(int numberStacks, int numberPlates) throws IOException {
+    private static int[][] getPlates(BufferedReader in, int numberStacks, int numberPlates) throws IOException {
 
         var plates = new int[numberStacks][numberPlates];
 
         for (int i = 0; i < numberStacks; i++) {
-            var stack = readInts();
+            var stack = readInts(in);
             for (int j = 0; j < numberPlates; j++) {
                 plates[i][j] = stack.get(j);
             }
@@ -188,11 +330,74 @@ public class Solution {
         return plates;
     }
 
-    private static List<Integer> readInts() throws IOException {
+    private static List<Integer> readInts(final BufferedReader in) throws IOException {
         return Arrays.stream(in.readLine().split(" "))
                 .map(Integer::valueOf)
                 .collect(Collectors.toList());
     }
 
+    private enum Engine {
+        MEMO, BOTTOM_UP;
+
+        public static Engine choose(final int numberPlates, final int maxPlates) {
+            return maxPlates <= MEMO_MAX_RATIO * numberPlates ? MEMO : BOTTOM_UP;
+        }
+    }
+
+    private static class CachedMaxes {
+        // Partial maxes by [stack][remainingPlates], and how many times we didn't have to calculate one again
+        public final int[][] maxes;
+        public long hits = 0;
+
+        public CachedMaxes(final int numberStacks, final int maxPlates) {
+            this.maxes = new int[numberStacks][maxPlates+1];
+        }
+    }
+
+    @Name("kickstart.y2020.rA.B.Case")
+    @Label("Plates case")
+    @Category({"Kickstart 2020", "Round A"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+        @Label("Memo hits") public long memoHits;
+        @Label("Engine") public String engine;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
 
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }
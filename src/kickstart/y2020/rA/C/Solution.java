@@ -80,37 +80,126 @@ originalDifficulty / (1 + addedExercises)  [ +1 if the remainder of the division
 
 
 
+Without the queue:
+
+The queue needs an object for every difference. If the sessions come from a buffer, we can also turn the problem
+around: instead of easing the hardest difference one exercise at a time, guess the final difficulty d and check it.
+A difference g needs ceil(g / d) - 1 extra exercises to get to d, so d is possible if the sum of those is at most the
+exercises we can add. The bigger d, the less exercises we need, so we can binary search the smallest possible d
+between 1 and the biggest difference, going through the sessions once per guess and without any extra memory.
+
+Which one to use:
+
+The queue does about log(N) work for every exercise we add, the binary search goes through the N sessions about 30
+times whatever the exercises are. So the queue wins while we add few exercises for every session, and the binary search
+wins after that. Every case picks its engine by K / N, and the ratio where they cross depends on the machine, so
+running the solution with --calibrate times both engines on random cases and prints the ratio to use with
+-Dkickstart.rA.C.queueMaxRatio.
+
+Really long session lists:
+
+Both engines need every session in memory (as boxed Integers in a list, on top of that), which for 10^7 sessions or
+more is a lot of heap for something we only need to know the differences of. And many differences will be the same,
+and the binary search gives the same exercises for every copy of a difference, so all we need is how many times every
+distinct difference happens. So when the case has more sessions than -Dkickstart.rA.C.streamingMinSessions (we know N
+from the first line of the case), we read the sessions number by number straight from the input, keeping just the last
+one, and count the differences in a sorted map. The binary search then goes through the distinct differences only,
+from the hardest down, and stops as soon as they are not harder than the difficulty it checks (those don't need any
+exercise). The memory is now proportional to the distinct differences, not to N.
+
 Solution passes all the tests
  */
 package kickstart.y2020.rA.C;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
-    public static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
 
-    public static void main(String[] args) throws IOException{
-        var cases = readInt();
+    // Max added exercises per session solved with the queue, the binary search takes the rest
+    private static final double QUEUE_MAX_RATIO = Double.parseDouble(System.getProperty("kickstart.rA.C.queueMaxRatio", "0.01"));
+
+    // Min sessions of a case to read them as a histogram of differences, instead of keeping them all
+    private static final int STREAMING_MIN_SESSIONS = Integer.getInteger("kickstart.rA.C.streamingMinSessions", 1_000_000);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1 && args[0].equals("--calibrate")) {
+            calibrate(System.out);
+            return;
+        }
+
+        solveAll(System.in, System.out);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out) throws IOException {
+        var in = new BufferedReader(new InputStreamReader(input));
+        var cases = readInt(in);
 
         for (int caseNumber = 0; caseNumber < cases; caseNumber++) {
-            var maxAddedExercises = readInts().get(1);
-            var exercises = readInts();
-            var difficultyPriority = getDifficultyPriorityFromExercises(exercises);
+            var event = new CaseEvent();
+            event.startCase(caseNumber);
+
+            var data = readInts(in);
+            var sessions = data.get(0);
+            var maxAddedExercises = data.get(1);
+            var engine = Engine.choose(sessions, maxAddedExercises);
+            int difficulty;
+
+            if (engine == Engine.HISTOGRAM) {
+                // The histogram is built while reading, so building it counts as parsing
+                var differences = readDifferences(in);
+                event.parseTime = event.phaseDone();
+
+                difficulty = solve(differences, maxAddedExercises);
+                event.distinctDifferences = differences.size();
+                event.solveTime = event.phaseDone();
+
+                out.println(solutionReport(caseNumber, difficulty));
+                event.formatTime = event.phaseDone();
+                event.engine = engine.name();
+                event.commitCase();
+                continue;
+            }
+
+            var exercises = readInts(in);
+            event.parseTime = event.phaseDone();
 
-            var difficulty = easeDifficulty(difficultyPriority, maxAddedExercises);
+            if (engine == Engine.QUEUE) {
+                var difficultyPriority = getDifficultyPriorityFromExercises(exercises);
+                difficulty = easeDifficulty(difficultyPriority, maxAddedExercises);
+                event.heapOperations = difficultyPriority.operations;
+            } else {
+                difficulty = solve(toBuffer(exercises), maxAddedExercises);
+            }
+            event.solveTime = event.phaseDone();
 
-            System.out.println(solutionReport(caseNumber, difficulty));
+            out.println(solutionReport(caseNumber, difficulty));
+            event.formatTime = event.phaseDone();
+            event.engine = engine.name();
+            event.commitCase();
         }
     }
 
-    private static int easeDifficulty(final PriorityQueue<Difficulty> difficultyPriority, final int maxAddedExercises) {
+    private static int easeDifficulty(final DifficultyQueue difficultyPriority, final int maxAddedExercises) {
 
         var exercisesLeft = maxAddedExercises;
 
@@ -131,7 +220,7 @@ public class Solution {
         return difficultyPriority.peek().currentDifficulty;
     }
 
-    private static PriorityQueue<Difficulty> getDifficultyPriorityFromExercises(List<Integer> exercises) {
+    private static DifficultyQueue getDifficultyPriorityFromExercises(List<Integer> exercises) {
 
         var difficulties = new ArrayList<Difficulty>(exercises.size());
 
@@ -143,14 +232,154 @@ public class Solution {
             }
         }
 
-        return new PriorityQueue<>(difficulties);
+        return new DifficultyQueue(difficulties);
+    }
+
+    public static int solve(final LongBuffer sessions, final long maxAddedExercises) {
+        // Binary search of the smallest difficulty we can get to with the exercises we can add
+        var hardest = 1L;
+        for (int session = 1; session < sessions.limit(); session++) {
+            hardest = Math.max(hardest, sessions.get(session) - sessions.get(session - 1));
+        }
+
+        var easiest = 1L;
+        while (easiest < hardest) {
+            var difficulty = (easiest + hardest) / 2;
+
+            if (exercisesNeeded(sessions, difficulty, maxAddedExercises) <= maxAddedExercises) {
+                hardest = difficulty;
+            } else {
+                easiest = difficulty + 1;
+            }
+        }
+
+        return (int) easiest;
+    }
+
+    private static long exercisesNeeded(final LongBuffer sessions, final long difficulty, final long maxAddedExercises) {
+        var needed = 0L;
+
+        for (int session = 1; session < sessions.limit() && needed <= maxAddedExercises; session++) {
+            var gap = sessions.get(session) - sessions.get(session - 1);
+            needed += (gap + difficulty - 1) / difficulty - 1;
+        }
+
+        return needed;
+    }
+
+    private static TreeMap<Integer, Long> readDifferences(final BufferedReader in) throws IOException {
+        // Reads a line of sessions char by char, counting how many times every difference between them happens
+        var differences = new TreeMap<Integer, Long>();
+        var previous = -1;
+        var session = 0;
+        var inNumber = false;
+
+        for (int read = in.read(); ; read = in.read()) {
+            if (read >= '0' && read <= '9') {
+                session = session * 10 + (read - '0');
+                inNumber = true;
+                continue;
+            }
+
+            if (inNumber) {
+                if (previous != -1) differences.merge(session - previous, 1L, Long::sum);
+                previous = session;
+                session = 0;
+                inNumber = false;
+            }
+
+            if (read == '\n' || read == -1) return differences;
+        }
+    }
+
+    public static int solve(final TreeMap<Integer, Long> differences, final long maxAddedExercises) {
+        // The same binary search as with a buffer, but going through every distinct difference once
+        var hardest = differences.isEmpty() ? 1L : Math.max(1, differences.lastKey());
+        var easiest = 1L;
+
+        while (easiest < hardest) {
+            var difficulty = (easiest + hardest) / 2;
+
+            if (exercisesNeeded(differences, difficulty, maxAddedExercises) <= maxAddedExercises) {
+                hardest = difficulty;
+            } else {
+                easiest = difficulty + 1;
+            }
+        }
+
+        return (int) easiest;
+    }
+
+    private static long exercisesNeeded(final TreeMap<Integer, Long> differences, final long difficulty,
+                                        final long maxAddedExercises) {
+        // From the hardest difference down, until they don't need any exercise to get to the difficulty
+        var needed = 0L;
+
+        for (var difference : differences.descendingMap().entrySet()) {
+            if (difference.getKey() <= difficulty || needed > maxAddedExercises) break;
+
+            needed += ((difference.getKey() + difficulty - 1) / difficulty - 1) * difference.getValue();
+        }
+
+        return needed;
+    }
+
+    private static LongBuffer toBuffer(final List<Integer> exercises) {
+        var sessions = new long[exercises.size()];
+        for (int session = 0; session < sessions.length; session++) {
+            sessions[session] = exercises.get(session);
+        }
+
+        return LongBuffer.wrap(sessions);
     }
 
-    private static int readInt() throws IOException {
+    private static void calibrate(final PrintStream out) {
+        // Times both engines on random sessions with more and more exercises per session, until the search wins
+        var random = new Random(2020);
+        var sessions = new ArrayList<Integer>();
+        for (int session = 0, time = 0; session < 100_000; session++) {
+            time += 1 + random.nextInt(1000);
+            sessions.add(time);
+        }
+
+        // Warming both up first, so the first ratio doesn't time the JIT
+        for (int run = 0; run < 10; run++) {
+            easeDifficulty(getDifficultyPriorityFromExercises(sessions), sessions.size());
+            solve(toBuffer(sessions), sessions.size());
+        }
+
+        // The last ratio the queue was measured winning at, 0 (no queue) when binary search already wins the first one
+        var queueMaxRatio = 0.0;
+        for (var ratio = 1.0 / 64; ratio <= 64; ratio *= 2) {
+            var maxAddedExercises = (int) (sessions.size() * ratio);
+
+            var queueTime = timeBestOf(() -> easeDifficulty(getDifficultyPriorityFromExercises(sessions), maxAddedExercises));
+            var searchTime = timeBestOf(() -> solve(toBuffer(sessions), maxAddedExercises));
+            out.printf("K/N %8.4f  queue %8.3f ms  binary search %8.3f ms%n", ratio, queueTime / 1e6, searchTime / 1e6);
+
+            if (searchTime < queueTime) break;
+            queueMaxRatio = ratio;
+        }
+
+        out.println("-Dkickstart.rA.C.queueMaxRatio=" + queueMaxRatio);
+    }
+
+    private static long timeBestOf(final Runnable engine) {
+        var best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            var start = System.nanoTime();
+            engine.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best;
+    }
+
+    private static int readInt(final BufferedReader in) throws IOException {
         return Integer.parseInt(in.readLine());
     }
 
-    private static List<Integer> readInts() throws IOException {
+    private static List<Integer> readInts(final BufferedReader in) throws IOException {
         return Arrays.stream(in.readLine().split(" "))
                 .map(Integer::valueOf)
                 .collect(Collectors.toCollection(ArrayList::new));
@@ -160,6 +389,39 @@ public class Solution {
         return "Case #"+(caseNumber+1)+": "+result;
     }
 
+    private enum Engine {
+        QUEUE, BINARY_SEARCH, HISTOGRAM;
+
+        public static Engine choose(final int sessions, final int maxAddedExercises) {
+            if (sessions >= STREAMING_MIN_SESSIONS) return HISTOGRAM;
+            return maxAddedExercises <= QUEUE_MAX_RATIO * sessions ? QUEUE : BINARY_SEARCH;
+        }
+    }
+
+    private static class DifficultyQueue extends PriorityQueue<Difficulty> {
+        private static final long serialVersionUID = 1L;
+
+        // Counts the heap operations, starting with building the heap from the initial difficulties
+        public long operations;
+
+        public DifficultyQueue(final Collection<Difficulty> difficulties) {
+            super(difficulties);
+            this.operations = difficulties.size();
+        }
+
+        @Override
+        public boolean offer(final Difficulty difficulty) {
+            operations++;
+            return super.offer(difficulty);
+        }
+
+        @Override
+        public Difficulty poll() {
+            operations++;
+            return super.poll();
+        }
+    }
+
     private static class Difficulty implements Comparable<Difficulty>{
         public final int originalDifficulty;
         public final int currentDifficulty;
@@ -188,4 +450,52 @@ public class Solution {
             return -Integer.compare(this.currentDifficulty, o.currentDifficulty);
         }
     }
+
+    @Name("kickstart.y2020.rA.C.Case")
+    @Label("Workout case")
+    @Category({"Kickstart 2020", "Round A"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+        @Label("Heap operations") public long heapOperations;
+        @Label("Engine") public String engine;
+        @Label("Distinct differences") public long distinctDifferences;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }
@@ -119,6 +119,63 @@ You can even ignore the root's own score, but it leaves the algorithm tidy.
 
 The return value of the score of the root will be the max possible score grouping these words.
 
+Scoring without removing:
+
+Removing the used words from the parents is what makes the trie a one-shot thing: once it is scored for a group size,
+the counts are gone. But if we look at what the removal actually does, every node at depth d ends up forming
+floor(coincidingWords / groupSize) groups whose prefix is at least d long (the groups taken deeper in the trie are
+still groups sharing this node's prefix too). So instead of scoring groups * depth at the node where they are formed,
+we can score 1 for each group on every level it goes through:
+
+score = sum of floor(coincidingWords / groupSize) for every node except the root
+
+That only reads the counts, so the same trie can be scored for as many group sizes as we want. And if we want many
+group sizes at once, we can go further: keep how many nodes have at least c coinciding words, and then the score for a
+group size K is the sum of nodesWithAtLeast[K] + nodesWithAtLeast[2K] + nodesWithAtLeast[3K] + ... which is N/K
+lookups per group size (and N/1 + N/2 + ... + N/N = O(N log N) for every possible group size together). That's
+Solution.CoincidingLetters: add the words once, then solveWithoutRemoving(K) or solve(int[] groupSizes) as needed.
+
+Sharding the trie:
+
+With that formula every node scores on its own, so nothing stops us from building different parts of the trie
+separately. If we split the words by their first prefixDepth letters, each group of words only ever touches its own
+subtrie below that prefix, so each subtrie can be built (and scored) on its own thread without locks. The only shared
+part is the top of the trie (the prefixes themselves and the words shorter than prefixDepth), which we build at the end
+adding every prefix as many times as words its subtrie has. The total score is the score of that top trie plus the
+score of every subtrie (without their roots, which are already counted in the top trie as the prefix nodes).
+Splitting the words is a parallel grouping too, by their first letters packed in a number, so no word is copied. Cases
+with at least -Dkickstart.rA.D.shardedMinWords words (and short ones, see below) are solved like this, as long as
+there is more than one processor to build the subtries on.
+
+Compressing the trie:
+
+Words with long unique endings create chains of nodes with a single child each, and every node of a chain has the same
+number of coinciding words (if a word ended in the middle of the chain, that node would have a different count). So we
+can store the whole chain as a single node whose edge is a piece of the word that created it (a radix trie), and score
+it as edgeLength * floor(coincidingWords / groupSize), which is exactly what the chain would have scored node by node.
+The edges just point to the original bytes of the word, so it works for any byte string, not only A-Z. That's
+Solution.CompressedCoincidingLetters, which takes the words as Strings or as pieces of a byte buffer.
+
+Without a trie at all:
+
+If the words are sorted, every trie node is just a run of consecutive words sharing that prefix. So we can walk the
+sorted words keeping only the count of the node at each depth of the current word: when the next word only shares lcp
+letters with the previous one, the nodes deeper than lcp are finished and can be scored (floor(count / groupSize)).
+That needs memory for one word, not for the whole trie, so for word sets that don't fit in memory we can sort them
+outside of it: sort chunks that fit in memory, write each one to a temporary file, and merge the files while scoring.
+To not open too many files at once, when there are more than 64 of them the first 64 are merged into a new one first.
+Running the solution with --external <bytes> solves every case like this, with about that many bytes of words in
+memory at most.
+
+Which one to use:
+
+The trie pays a map lookup (and often a new node) for every letter of every word, while sorting pays log(N) comparisons
+per word, and a comparison only reads the letters up to the first difference. So for short words the trie wins, and
+the longer the words get (compared to what they share), the better sorting them does. Every case starts building the
+trie while reading its words, counting their letters, and as soon as those letters are enough for the average of the
+case to be over the limit, it takes the words back out of the trie and sorts them with the rest instead. Running the
+solution with --calibrate times both on random words and prints the length to use with -Dkickstart.rA.D.sortedMinLength.
+
 
 This solution passes all test cases.
  */
@@ -128,30 +185,187 @@ package kickstart.y2020.rA.D;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
-    public static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+    // Min average letters per word solved sorting the words, the trie takes the rest
+    private static final double SORTED_MIN_LENGTH = Double.parseDouble(System.getProperty("kickstart.rA.D.sortedMinLength", "8"));
+
+    // Min words of a case to build its trie in shards, split by their first SHARD_PREFIX_DEPTH letters
+    private static final int SHARDED_MIN_WORDS = Integer.getInteger("kickstart.rA.D.shardedMinWords", 50_000);
+    private static final int SHARD_PREFIX_DEPTH = 2;
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
     public static void main(String[] args) throws Exception {
-        var cases = readInt();
+        if (args.length == 1 && args[0].equals("--calibrate")) {
+            calibrate(System.out);
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--external")) {
+            solveAll(System.in, System.out, Long.parseLong(args[1]));
+            return;
+        }
+
+        solveAll(System.in, System.out);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        solveAll(input, out, 0);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out, final long memoryCapBytes)
+            throws Exception {
+        // With a memoryCapBytes over 0, the words of every case are sorted outside of memory
+        var in = new BufferedReader(new InputStreamReader(input));
+        var cases = readInt(in);
 
         for (int caseN = 0; caseN < cases; caseN++) {
-            var data = readInts();
+            var event = new CaseEvent();
+            event.startCase(caseN);
+
+            var data = readInts(in);
             var words = data.get(0);
             var groupSize = data.get(1);
-            var coincidingLetters = new CoincidingLetters();
 
+            if (memoryCapBytes > 0) {
+                // The words are sorted while reading, so sorting them counts as parsing
+                try (var external = new ExternalCoincidingLetters(memoryCapBytes)) {
+                    for (int i = 0; i < words; i++) {
+                        external.addWord(in.readLine());
+                    }
+                    event.parseTime = event.phaseDone();
+
+                    var solution = external.solve(groupSize);
+                    event.solveTime = event.phaseDone();
+
+                    out.println(reportCase(caseN, solution));
+                    event.formatTime = event.phaseDone();
+                    event.engine = Engine.EXTERNAL.name();
+                    event.commitCase();
+                }
+                continue;
+            }
+
+            // The trie is built while reading (so building it counts as parsing), until the words read turn out to be
+            // long enough for sorting them to be better. Then the words in the trie go to a list with the rest
+            var engine = Engine.choose(words);
+            var coincidingLetters = engine == Engine.TRIE ? new CoincidingLetters() : null;
+            List<String> caseWords = engine == Engine.TRIE ? null : new ArrayList<>(words);
+            var letters = 0L;
+
+            for (int i = 0; i < words; i++) {
+                var word = in.readLine();
+                letters += word.length();
+
+                if (engine != Engine.SORTED && Engine.sortingIsBetter(words, letters)) {
+                    if (engine == Engine.TRIE) {
+                        caseWords = coincidingLetters.words();
+                        coincidingLetters = null;
+                    }
+                    engine = Engine.SORTED;
+                }
+
+                if (engine == Engine.TRIE) coincidingLetters.addWord(word);
+                else caseWords.add(word);
+            }
+            event.parseTime = event.phaseDone();
+
+            int solution;
+
+            if (engine == Engine.SHARDED) {
+                solution = new ShardedCoincidingLetters(SHARD_PREFIX_DEPTH, caseWords).solve(groupSize);
+            } else if (engine == Engine.TRIE) {
+                solution = coincidingLetters.solve(groupSize);
+                event.trieNodes = coincidingLetters.nodesCreated;
+            } else {
+                solution = solveSorted(caseWords, groupSize);
+            }
+            event.solveTime = event.phaseDone();
+
+            out.println(reportCase(caseN, solution));
+            event.formatTime = event.phaseDone();
+            event.engine = engine.name();
+            event.commitCase();
+        }
+    }
+
+    private static int solveSorted(final List<String> words, final int groupSize) {
+        Collections.sort(words);
+
+        var prefixGroups = new PrefixGroups(groupSize);
+        words.forEach(prefixGroups::addSortedWord);
+
+        return prefixGroups.finish();
+    }
+
+    private static void calibrate(final PrintStream out) {
+        // Times both engines on random words longer and longer, until sorting them wins
+        var random = new Random(2020);
+        var words = 20_000;
+
+        for (var length = 2; length <= 1024; length *= 2) {
+            var caseWords = new ArrayList<String>(words);
             for (int i = 0; i < words; i++) {
-                coincidingLetters.addWord(in.readLine());
+                var word = new char[length];
+                for (int letter = 0; letter < length; letter++) {
+                    word[letter] = (char) ('A' + random.nextInt(4));
+                }
+                caseWords.add(new String(word));
             }
 
-            System.out.println(reportCase(caseN, coincidingLetters.solve(groupSize)));
+            // Warming both up first, so the first length doesn't time the JIT
+            for (int run = 0; run < 3; run++) {
+                solveWithTrie(caseWords, 2);
+                solveSorted(new ArrayList<>(caseWords), 2);
+            }
+
+            var trieTime = timeBestOf(() -> solveWithTrie(caseWords, 2));
+            var sortedTime = timeBestOf(() -> solveSorted(new ArrayList<>(caseWords), 2));
+            out.printf("Length %5d  trie %9.3f ms  sorted %9.3f ms%n", length, trieTime / 1e6, sortedTime / 1e6);
+
+            if (sortedTime < trieTime) {
+                out.println("-Dkickstart.rA.D.sortedMinLength=" + length);
+                return;
+            }
+        }
+
+        // No length measured to use, so the trie keeps every case
+        out.println("Sorting never won up to length 1024, keep the trie with -Dkickstart.rA.D.sortedMinLength=Infinity");
+    }
+
+    private static int solveWithTrie(final List<String> words, final int groupSize) {
+        var coincidingLetters = new CoincidingLetters();
+        words.forEach(coincidingLetters::addWord);
+
+        return coincidingLetters.solve(groupSize);
+    }
+
+    private static long timeBestOf(final Runnable engine) {
+        var best = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            var start = System.nanoTime();
+            engine.run();
+            best = Math.min(best, System.nanoTime() - start);
         }
+
+        return best;
     }
 
-    private static int readInt() throws IOException {
+    private static int readInt(final BufferedReader in) throws IOException {
         return Integer.parseInt(in.readLine());
     }
 
@@ -159,30 +373,522 @@ public class Solution {
         return "Case #"+(caseNumber+1)+": "+solution;
     }
 
-    private static List<Integer> readInts() throws IOException {
+    private static List<Integer> readInts(final BufferedReader in) throws IOException {
         return Arrays.stream(in.readLine().split(" "))
                 .map(Integer::valueOf)
                 .collect(Collectors.toList());
     }
 
-    private static class CoincidingLetters {
-        public TrieNode root = new TrieNode(null);
+    private enum Engine {
+        TRIE, SHARDED, SORTED, EXTERNAL;
+
+        public static Engine choose(final int words) {
+            return words >= SHARDED_MIN_WORDS && PROCESSORS > 1 ? SHARDED : TRIE;
+        }
+
+        public static boolean sortingIsBetter(final int words, final long lettersSoFar) {
+            // Once the letters read get there, the average length of all the words will too
+            return lettersSoFar >= SORTED_MIN_LENGTH * words;
+        }
+    }
+
+    public static class CoincidingLetters {
+        private final TrieNode root = new TrieNode(null);
+        public long nodesCreated = 1;
 
         public void addWord(String word) {
-            var charArray = word.toCharArray();
+            addWord(word, 1);
+        }
+
+        public void addWord(String word, int times) {
+            addWord(word, 0, times);
+        }
+
+        public void addWord(String word, int from, int times) {
+            // Adds the letters of word from the position from on, times times
             var currentNode = root;
-            char currentChar;
-            currentNode.coincidingWords++;
+            currentNode.coincidingWords += times;
 
-            for (final char c : charArray) {
-                currentNode = currentNode.getCharNode(c);
-                currentNode.coincidingWords++;
+            for (int letter = from; letter < word.length(); letter++) {
+                var children = currentNode.next.size();
+                var nextNode = currentNode.getCharNode(word.charAt(letter));
+                nodesCreated += currentNode.next.size() - children;
+
+                currentNode = nextNode;
+                currentNode.coincidingWords += times;
             }
         }
 
         public int solve(int groupSize) {
+            checkGroupSize(groupSize);
             return root.getMaximumScoreForNode(groupSize, 0);
         }
+
+        public int solveWithoutRemoving(int groupSize) {
+            // Same score as solve, but the trie is left untouched so it can be scored again
+            checkGroupSize(groupSize);
+            var score = 0;
+
+            for (TrieNode node : nodesBelowRoot()) {
+                score += node.coincidingWords / groupSize;
+            }
+
+            return score;
+        }
+
+        public int[] solve(int[] groupSizes) {
+            // Scores all the group sizes with a single walk through the trie, without removing any words
+            for (int groupSize : groupSizes) {
+                checkGroupSize(groupSize);
+            }
+
+            var nodesWithAtLeast = new int[root.coincidingWords + 2];
+            for (TrieNode node : nodesBelowRoot()) {
+                nodesWithAtLeast[node.coincidingWords]++;
+            }
+            for (int words = nodesWithAtLeast.length - 2; words >= 0; words--) {
+                nodesWithAtLeast[words] += nodesWithAtLeast[words + 1];
+            }
+
+            var scores = new int[groupSizes.length];
+
+            for (int i = 0; i < groupSizes.length; i++) {
+                for (int words = groupSizes[i]; words < nodesWithAtLeast.length; words += groupSizes[i]) {
+                    scores[i] += nodesWithAtLeast[words];
+                }
+            }
+
+            return scores;
+        }
+
+        public List<String> words() {
+            // The words added so far (in no particular order), rebuilt from how many of them end at every node
+            var words = new ArrayList<String>();
+            var path = new StringBuilder();
+            var pending = new ArrayDeque<Map.Entry<Character, TrieNode>>();
+            var depths = new ArrayDeque<Integer>();
+
+            addEndingWords(words, root, path);
+            for (var child : root.next.entrySet()) {
+                pending.push(child);
+                depths.push(1);
+            }
+
+            while (!pending.isEmpty()) {
+                var entry = pending.pop();
+                var depth = depths.pop();
+
+                path.setLength(depth - 1);
+                path.append(entry.getKey());
+                addEndingWords(words, entry.getValue(), path);
+
+                for (var child : entry.getValue().next.entrySet()) {
+                    pending.push(child);
+                    depths.push(depth + 1);
+                }
+            }
+
+            return words;
+        }
+
+        private static void addEndingWords(final List<String> words, final TrieNode node, final CharSequence path) {
+            var endingWords = node.coincidingWords;
+            for (TrieNode child : node.next.values()) {
+                endingWords -= child.coincidingWords;
+            }
+
+            for (int i = 0; i < endingWords; i++) {
+                words.add(path.toString());
+            }
+        }
+
+        private List<TrieNode> nodesBelowRoot() {
+            // Iterative walk so long words don't blow up the stack
+            var nodes = new ArrayList<TrieNode>();
+            var pending = new ArrayDeque<>(root.next.values());
+
+            while (!pending.isEmpty()) {
+                var node = pending.pop();
+                nodes.add(node);
+                pending.addAll(node.next.values());
+            }
+
+            return nodes;
+        }
+    }
+
+    private static void checkGroupSize(final int groupSize) {
+        if (groupSize <= 0) throw new IllegalArgumentException("Groups need at least 1 word, not " + groupSize);
+    }
+
+    private static class ShardedCoincidingLetters {
+        // The shards are keyed by their first prefixDepth letters packed in a long, so a word is never copied
+        private static final int MAX_PREFIX_DEPTH = Long.SIZE / Character.SIZE;
+
+        private final int prefixDepth;
+        private final List<String> shortWords;
+        private final Map<Long, List<String>> wordsByPrefix;
+
+        public ShardedCoincidingLetters(final int prefixDepth, final List<String> words) {
+            if (prefixDepth < 1 || prefixDepth > MAX_PREFIX_DEPTH) {
+                throw new IllegalArgumentException("The prefix has to be 1 to " + MAX_PREFIX_DEPTH + " letters long");
+            }
+
+            this.prefixDepth = prefixDepth;
+            this.shortWords = words.parallelStream()
+                    .filter(word -> word.length() < prefixDepth)
+                    .collect(Collectors.toList());
+            this.wordsByPrefix = words.parallelStream()
+                    .filter(word -> word.length() >= prefixDepth)
+                    .collect(Collectors.groupingByConcurrent(this::prefixKey));
+        }
+
+        public int solve(int groupSize) {
+            return solve(new int[] {groupSize})[0];
+        }
+
+        public int[] solve(int[] groupSizes) {
+            // Every subtrie is built and scored in parallel, and the top of the trie is scored last
+
+            var scores = wordsByPrefix.values().parallelStream()
+                    .map(words -> {
+                        var subtrie = new CoincidingLetters();
+                        for (String word : words) {
+                            subtrie.addWord(word, prefixDepth, 1);
+                        }
+                        return subtrie.solve(groupSizes);
+                    })
+                    .reduce(new int[groupSizes.length], ShardedCoincidingLetters::addScores);
+
+            var top = new CoincidingLetters();
+            for (String word : shortWords) {
+                top.addWord(word);
+            }
+            for (List<String> words : wordsByPrefix.values()) {
+                top.addWord(words.get(0).substring(0, prefixDepth), words.size());
+            }
+
+            return addScores(scores, top.solve(groupSizes));
+        }
+
+        private long prefixKey(final String word) {
+            var key = 0L;
+            for (int letter = 0; letter < prefixDepth; letter++) {
+                key = key << Character.SIZE | word.charAt(letter);
+            }
+            return key;
+        }
+
+        private static int[] addScores(int[] scores, int[] otherScores) {
+            var total = new int[scores.length];
+            for (int i = 0; i < scores.length; i++) {
+                total[i] = scores[i] + otherScores[i];
+            }
+            return total;
+        }
+    }
+
+    public static class CompressedCoincidingLetters {
+        private final RadixNode root = new RadixNode(null, 0, 0);
+
+        public void addWord(String word) {
+            var bytes = word.getBytes(StandardCharsets.UTF_8);
+            addWord(bytes, 0, bytes.length);
+        }
+
+        public void addWord(final byte[] buffer, final int offset, final int length) {
+            var currentNode = root;
+            var position = offset;
+            var end = offset + length;
+            currentNode.coincidingWords++;
+
+            while (position < end) {
+                var nextNode = currentNode.next.get(buffer[position]);
+
+                if (nextNode == null) {
+                    var leaf = new RadixNode(buffer, position, end - position);
+                    leaf.coincidingWords++;
+                    currentNode.next.put(buffer[position], leaf);
+                    return;
+                }
+
+                var coinciding = nextNode.coincidingLength(buffer, position, end);
+
+                if (coinciding < nextNode.labelLength) {
+                    // The word leaves (or ends in) the middle of the edge, so the edge has to be split there
+                    nextNode = nextNode.splitAt(coinciding);
+                    currentNode.next.put(buffer[position], nextNode);
+                }
+
+                nextNode.coincidingWords++;
+                currentNode = nextNode;
+                position += coinciding;
+            }
+        }
+
+        public int solveWithoutRemoving(int groupSize) {
+            checkGroupSize(groupSize);
+            var score = 0;
+
+            for (RadixNode node : nodesBelowRoot()) {
+                score += node.labelLength * (node.coincidingWords / groupSize);
+            }
+
+            return score;
+        }
+
+        public int[] solve(int[] groupSizes) {
+            // Same as CoincidingLetters.solve, but every node counts as many times as letters its edge has
+            for (int groupSize : groupSizes) {
+                checkGroupSize(groupSize);
+            }
+
+            var lettersWithAtLeast = new int[root.coincidingWords + 2];
+            for (RadixNode node : nodesBelowRoot()) {
+                lettersWithAtLeast[node.coincidingWords] += node.labelLength;
+            }
+            for (int words = lettersWithAtLeast.length - 2; words >= 0; words--) {
+                lettersWithAtLeast[words] += lettersWithAtLeast[words + 1];
+            }
+
+            var scores = new int[groupSizes.length];
+
+            for (int i = 0; i < groupSizes.length; i++) {
+                for (int words = groupSizes[i]; words < lettersWithAtLeast.length; words += groupSizes[i]) {
+                    scores[i] += lettersWithAtLeast[words];
+                }
+            }
+
+            return scores;
+        }
+
+        private List<RadixNode> nodesBelowRoot() {
+            var nodes = new ArrayList<RadixNode>();
+            var pending = new ArrayDeque<>(root.next.values());
+
+            while (!pending.isEmpty()) {
+                var node = pending.pop();
+                nodes.add(node);
+                pending.addAll(node.next.values());
+            }
+
+            return nodes;
+        }
+    }
+
+    private static class RadixNode {
+        // The edge from the parent is label[labelStart, labelStart + labelLength), taken from the word that created it
+        public byte[] label;
+        public int labelStart;
+        public int labelLength;
+        public final HashMap<Byte, RadixNode> next = new HashMap<>();
+        public int coincidingWords = 0;
+
+        public RadixNode(final byte[] label, final int labelStart, final int labelLength) {
+            this.label = label;
+            this.labelStart = labelStart;
+            this.labelLength = labelLength;
+        }
+
+        public int coincidingLength(final byte[] buffer, final int position, final int end) {
+            var coinciding = 0;
+
+            while (coinciding < labelLength && position + coinciding < end
+                    && label[labelStart + coinciding] == buffer[position + coinciding]) {
+                coinciding++;
+            }
+
+            return coinciding;
+        }
+
+        public RadixNode splitAt(final int length) {
+            // Returns a new node with the first part of the edge, which has this node (with the rest of the edge) as child
+            var head = new RadixNode(label, labelStart, length);
+            head.coincidingWords = this.coincidingWords;
+
+            this.labelStart += length;
+            this.labelLength -= length;
+            head.next.put(label[labelStart], this);
+
+            return head;
+        }
+    }
+
+    private static class ExternalCoincidingLetters implements AutoCloseable {
+        // Rough size of a word in memory (the String, its bytes and the reference in the chunk)
+        private static final int WORD_OVERHEAD_BYTES = 64;
+        private static final int MAX_MERGE_FAN_IN = 64;
+
+        private final long memoryCapBytes;
+        private final Path temporaryDirectory;
+        private final List<Path> sortedRuns = new ArrayList<>();
+        private final List<String> chunk = new ArrayList<>();
+        private long chunkBytes = 0;
+
+        public ExternalCoincidingLetters(final long memoryCapBytes) {
+            this(memoryCapBytes, Path.of(System.getProperty("java.io.tmpdir")));
+        }
+
+        public ExternalCoincidingLetters(final long memoryCapBytes, final Path temporaryDirectory) {
+            this.memoryCapBytes = memoryCapBytes;
+            this.temporaryDirectory = temporaryDirectory;
+        }
+
+        public void addWord(String word) throws IOException {
+            chunk.add(word);
+            chunkBytes += word.length() + WORD_OVERHEAD_BYTES;
+
+            if (chunkBytes >= memoryCapBytes) {
+                writeSortedRun();
+            }
+        }
+
+        public int solve(int groupSize) throws IOException {
+            checkGroupSize(groupSize);
+            writeSortedRun();
+
+            // Never more than MAX_MERGE_FAN_IN files open: the first runs are merged into a new one until they fit
+            while (sortedRuns.size() > MAX_MERGE_FAN_IN) {
+                var merging = new ArrayList<>(sortedRuns.subList(0, MAX_MERGE_FAN_IN));
+                var path = Files.createTempFile(temporaryDirectory, "bundling-run-", ".txt");
+                sortedRuns.add(path);
+
+                try (var writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                    merge(merging, word -> {
+                        writer.write(word);
+                        writer.newLine();
+                    });
+                }
+
+                sortedRuns.removeAll(merging);
+                for (Path merged : merging) {
+                    Files.deleteIfExists(merged);
+                }
+            }
+
+            var prefixGroups = new PrefixGroups(groupSize);
+            merge(sortedRuns, prefixGroups::addSortedWord);
+
+            return prefixGroups.finish();
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Path path : sortedRuns) {
+                Files.deleteIfExists(path);
+            }
+            sortedRuns.clear();
+        }
+
+        private static void merge(final List<Path> runPaths, final SortedWords sortedWords) throws IOException {
+            // Sends the words of all the runs, in order, to sortedWords
+            var opened = new ArrayList<SortedRun>();
+            var runs = new PriorityQueue<SortedRun>();
+
+            try {
+                for (Path path : runPaths) {
+                    var run = new SortedRun(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+                    opened.add(run);
+                    if (run.advance()) runs.add(run);
+                }
+
+                while (!runs.isEmpty()) {
+                    var run = runs.poll();
+                    sortedWords.accept(run.currentWord);
+
+                    if (run.advance()) runs.add(run);
+                }
+            } finally {
+                for (SortedRun run : opened) {
+                    run.close();
+                }
+            }
+        }
+
+        private void writeSortedRun() throws IOException {
+            if (chunk.isEmpty()) return;
+
+            Collections.sort(chunk);
+
+            var path = Files.createTempFile(temporaryDirectory, "bundling-run-", ".txt");
+            Files.write(path, chunk, StandardCharsets.UTF_8);
+            sortedRuns.add(path);
+
+            chunk.clear();
+            chunkBytes = 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SortedWords {
+        void accept(String word) throws IOException;
+    }
+
+    private static class SortedRun implements Comparable<SortedRun>, AutoCloseable {
+        private final BufferedReader reader;
+        public String currentWord;
+
+        public SortedRun(final BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        public boolean advance() throws IOException {
+            currentWord = reader.readLine();
+            return currentWord != null;
+        }
+
+        public int compareTo(SortedRun o) {
+            return this.currentWord.compareTo(o.currentWord);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class PrefixGroups {
+        // Scores words arriving in sorted order, keeping only the counts of the trie nodes of the last word
+        private final int groupSize;
+        private int[] coincidingWordsByDepth = new int[16];
+        private String previousWord = "";
+        private int score = 0;
+
+        public PrefixGroups(final int groupSize) {
+            this.groupSize = groupSize;
+        }
+
+        public void addSortedWord(String word) {
+            var coinciding = 0;
+            var maxCoinciding = Math.min(word.length(), previousWord.length());
+            while (coinciding < maxCoinciding && word.charAt(coinciding) == previousWord.charAt(coinciding)) {
+                coinciding++;
+            }
+
+            scoreNodesDeeperThan(coinciding);
+
+            if (word.length() >= coincidingWordsByDepth.length) {
+                coincidingWordsByDepth = Arrays.copyOf(coincidingWordsByDepth, 2 * word.length());
+            }
+            for (int depth = 1; depth <= word.length(); depth++) {
+                coincidingWordsByDepth[depth]++;
+            }
+
+            previousWord = word;
+        }
+
+        public int finish() {
+            scoreNodesDeeperThan(0);
+            previousWord = "";
+            return score;
+        }
+
+        private void scoreNodesDeeperThan(int depth) {
+            for (int finishedDepth = previousWord.length(); finishedDepth > depth; finishedDepth--) {
+                score += coincidingWordsByDepth[finishedDepth] / groupSize;
+                coincidingWordsByDepth[finishedDepth] = 0;
+            }
+        }
     }
 
     private static class TrieNode {
@@ -227,4 +933,51 @@ public class Solution {
             return maxScore;
         }
     }
+
+    @Name("kickstart.y2020.rA.D.Case")
+    @Label("Bundling case")
+    @Category({"Kickstart 2020", "Round A"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+        @Label("Trie nodes created") public long trieNodes;
+        @Label("Engine") public String engine;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }
@@ -13,26 +13,68 @@ Algorithm:
 Loop through the array, starting on the second element and finishing one before the last. At each element, check if
 both sides have a lower value, and add one to an acumulator if that is the case.
 
+Huge tours:
+
+Whether a checkpoint is a peak only depends on its two neighbours, so for really long tours (like heights mapped from a
+file) we can split the checkpoints in chunks and count the peaks of every chunk on its own ForkJoin worker, adding the
+counts up. The checkpoints at the edges of a chunk are not a problem: their neighbours are in the next chunk, but we
+read them straight from the buffer like any other height, so every checkpoint is checked exactly once and the count is
+the same as going one by one.
+
+CaseArena can only hand this path up to Integer.MAX_VALUE / 8 numbers (about 268 million, all the cases together), as
+it parses the whole input into a single direct buffer. Longer tours need the caller to map its own file of heights and
+pass it to solve(LongBuffer) (FileChannel.map(...).asLongBuffer()), up to Integer.MAX_VALUE heights per buffer.
+
 Solution passes all test cases
  */
 package kickstart.y2020.rB.A;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
-    public static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+    // Tours at least this long are counted in parallel, in chunks of PEAK_CHUNK checkpoints
+    private static final int PARALLEL_MIN_CHECKPOINTS = 1 << 20;
+    private static final int PEAK_CHUNK = 1 << 16;
+
     public static void main(String[] args) throws Exception {
+        solveAll(System.in, System.out);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        var in = new BufferedReader(new InputStreamReader(input));
 
-        var cases = readInt();
+        var cases = readInt(in);
 
         for (int caseN = 0; caseN < cases; caseN++) {
+            var event = new CaseEvent();
+            event.startCase(caseN);
+
             in.readLine(); //skip number peaks
-            var data =  readInts();
-            System.out.println(reportCase(caseN, solve(data)));
+            var data =  readInts(in);
+            event.parseTime = event.phaseDone();
+
+            var peaks = solve(data);
+            event.solveTime = event.phaseDone();
+
+            out.println(reportCase(caseN, peaks));
+            event.formatTime = event.phaseDone();
+            event.commitCase();
         }
     }
 
@@ -57,18 +99,112 @@ public class Solution {
         return peaks;
     }
 
+    public static long solve(final LongBuffer heights) {
+        // The simple loop checking the neighbours, for heights that are not in a list
+        if (heights.limit() >= PARALLEL_MIN_CHECKPOINTS) {
+            return ForkJoinPool.commonPool().invoke(new PeakCount(heights, 1, heights.limit() - 1));
+        }
+
+        return countPeaks(heights, 1, heights.limit() - 1);
+    }
+
+    private static long countPeaks(final LongBuffer heights, final int from, final int to) {
+        // Peaks among the checkpoints [from, to), which must have both neighbours in the buffer
+        var peaks = 0L;
+
+        for (int checkpoint = from; checkpoint < to; checkpoint++) {
+            var height = heights.get(checkpoint);
+            if (height > heights.get(checkpoint - 1) && height > heights.get(checkpoint + 1)) {
+                peaks++;
+            }
+        }
+
+        return peaks;
+    }
+
     private static String reportCase(int caseNumber, long solution) {
         return "Case #"+(caseNumber+1)+": "+solution;
     }
 
-    private static int readInt() throws IOException {
+    private static int readInt(final BufferedReader in) throws IOException {
         return Integer.parseInt(in.readLine());
     }
 
-    private static List<Integer> readInts() throws IOException {
+    private static List<Integer> readInts(final BufferedReader in) throws IOException {
         return Arrays.stream(in.readLine().split(" "))
                 .map(Integer::valueOf)
                 .collect(Collectors.toList());
     }
 
-}
\ No newline at end of file
+    private static class PeakCount extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final LongBuffer heights;
+        private final int from;
+        private final int to;
+
+        public PeakCount(final LongBuffer heights, final int from, final int to) {
+            this.heights = heights;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PEAK_CHUNK) {
+                return countPeaks(heights, from, to);
+            }
+
+            var middle = (from + to) >>> 1;
+            var left = new PeakCount(heights, from, middle);
+            left.fork();
+
+            return new PeakCount(heights, middle, to).compute() + left.join();
+        }
+    }
+
+    @Name("kickstart.y2020.rB.A.Case")
+    @Label("Bike Tour case")
+    @Category({"Kickstart 2020", "Round B"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
+}
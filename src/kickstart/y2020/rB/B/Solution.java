@@ -12,6 +12,15 @@ Algorithm:
 Starting in the last bus, decrease the maxDay counter by the modulo of maxDay and the bus frecuency. Repeat with all the
 buses in reverse order. The solution is the remaining maxDay after finishing with the first bus.
 
+Keeping the schedule:
+
+Every remainingDays of the loop is actually the day we take that bus, so keeping them in an array (boardingDays[i],
+the latest day to take the bus i) gives the whole schedule for free. And when the frecuency of a bus changes, the buses
+after it don't care at all (they only depend on the buses after them), so only the changed bus and the ones before it
+have to be recomputed, starting from the day of the next bus. And once a recomputed day is the same as before, all the
+buses before it will be the same as before too, so we can stop right there. That's Solution.BusSchedule, for callers
+that need the whole schedule or keep changing the frecuencies of a route list.
+
 Solution passes all tests
  */
 
@@ -19,22 +28,46 @@ package kickstart.y2020.rB.B;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
-    public static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
     public static void main(String[] args) throws Exception {
+        solveAll(System.in, System.out);
+    }
 
-        var cases = readInt();
+    public static void solveAll(final InputStream input, final PrintStream out) throws Exception {
+        var in = new BufferedReader(new InputStreamReader(input));
+
+        var cases = readInt(in);
 
         for (int caseN = 0; caseN < cases; caseN++) {
-            var maxDay = readLongs().get(1);
-            var busFrecuencies =  readLongs();
-            System.out.println(reportCase(caseN, solve(busFrecuencies, maxDay)));
+            var event = new CaseEvent();
+            event.startCase(caseN);
+
+            var maxDay = readLongs(in).get(1);
+            var busFrecuencies =  readLongs(in);
+            event.parseTime = event.phaseDone();
+
+            var firstDay = solve(busFrecuencies, maxDay);
+            event.solveTime = event.phaseDone();
+
+            out.println(reportCase(caseN, firstDay));
+            event.formatTime = event.phaseDone();
+            event.commitCase();
         }
     }
 
@@ -49,18 +82,120 @@ public class Solution {
         return remainingDays;
     }
 
+    public static long solve(final LongBuffer busFrecuencies, final long maxDay) {
+        var remainingDays = maxDay;
+
+        for (int busIndex = busFrecuencies.limit() - 1; busIndex >= 0; busIndex--) {
+            remainingDays -= remainingDays % busFrecuencies.get(busIndex);
+        }
+
+        return remainingDays;
+    }
+
+    public static class BusSchedule {
+        private final long[] busFrecuencies;
+        private final long maxDay;
+        private final long[] boardingDays;
+
+        public BusSchedule(final long[] busFrecuencies, final long maxDay) {
+            this.busFrecuencies = busFrecuencies.clone();
+            this.maxDay = maxDay;
+            this.boardingDays = new long[busFrecuencies.length];
+
+            var remainingDays = maxDay;
+            for (int busIndex = busFrecuencies.length - 1; busIndex >= 0; busIndex--) {
+                remainingDays -= remainingDays % busFrecuencies[busIndex];
+                boardingDays[busIndex] = remainingDays;
+            }
+        }
+
+        public long firstDay() {
+            return boardingDays[0];
+        }
+
+        public long boardingDay(final int busIndex) {
+            return boardingDays[busIndex];
+        }
+
+        public long[] boardingDays() {
+            return boardingDays.clone();
+        }
+
+        public int updateFrecuency(final int busIndex, final long busFrecuency) {
+            // Recomputes the days of the bus and the ones before it until one doesn't change, returning how many did
+            busFrecuencies[busIndex] = busFrecuency;
+
+            var remainingDays = busIndex == boardingDays.length - 1 ? maxDay : boardingDays[busIndex + 1];
+            var recomputed = 0;
+
+            for (int bus = busIndex; bus >= 0; bus--) {
+                remainingDays -= remainingDays % busFrecuencies[bus];
+                recomputed++;
+
+                if (remainingDays == boardingDays[bus]) break;
+                boardingDays[bus] = remainingDays;
+            }
+
+            return recomputed;
+        }
+    }
+
     private static String reportCase(final int caseNumber, final long solution) {
         return "Case #"+(caseNumber+1)+": "+solution;
     }
 
-    private static int readInt() throws IOException {
+    private static int readInt(final BufferedReader in) throws IOException {
         return Integer.parseInt(in.readLine());
     }
 
-    private static List<Long> readLongs() throws IOException {
+    private static List<Long> readLongs(final BufferedReader in) throws IOException {
         return Arrays.stream(in.readLine().split(" "))
                 .map(Long::valueOf)
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
+    @Name("kickstart.y2020.rB.B.Case")
+    @Label("Bus Routes case")
+    @Category({"Kickstart 2020", "Round B"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }
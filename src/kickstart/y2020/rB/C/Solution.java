@@ -77,37 +77,89 @@ N,S,E,W -> Change movement accordingly
 2-9     -> Store current movement and multiplier in the stack. Reset movement to 0,0.
 )       -> Pop last element from the stack. Movement becomes ( (oldM.x + currM.x * mult)%MAX, (oldM.y + currM.t * mult)%MAX)
 
+Where is the rover after t steps?
+
+The same delayed multiplication idea works if we keep the program around as a tree instead of executing it: every
+subprogram is a node with its children (moves or other subprograms), and for every node we store how many steps it
+expands to and which movement it does in total. Then to know where the rover is after t steps we go down the tree:
+
+* In a subprogram repeated k times with a body of L steps, the first t / L repetitions are done entirely, so we add
+  (t / L) * bodyMovement and keep going with t % L steps inside the body.
+* In the body, we add the movement of all the children that are done entirely (precalculated as prefix sums, so a binary
+  search finds the child where step t falls) and go down that child with the steps that are left.
+
+That is one level of the tree per nesting level, no matter how many steps the program expands to (the step counts can
+overflow longs, but we only need them to be compared against t, so we just cap them). If we have a lot of steps to ask
+for, we sort them first, so the queries that go down through the same child are handled together. That's
+Solution.ProgramTree: parse a program once, and ask it positionAt(t) or positionsAt(ts) as many times as needed.
+
+Reading the program:
+
+Notice that the interpreter only ever needs the current letter and the stack of open subprograms. So there is no need
+to read the whole line (and then copy it to a char array) before executing it: we read the input in fixed size chunks
+and execute every byte as it comes. The memory used depends on how nested the program is, not on how long it is.
  */
 package kickstart.y2020.rB.C;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Stack;
+import java.util.stream.IntStream;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
-    private static BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
     private static final int PLANET_LENGTH = (int)Math.pow(10,9);
+    private static final int CHUNK_SIZE = 1 << 16;
     public static void main(String[] args) throws IOException {
-        var cases = readInt();
+        solveAll(System.in, System.out);
+    }
+
+    public static void solveAll(final InputStream input, final PrintStream out) throws IOException {
+        var in = new ProgramReader(Channels.newChannel(input), CHUNK_SIZE);
+        var cases = in.readInt();
 
         for (int caseN = 0; caseN < cases; caseN++) {
-            var solution = solve(in.readLine().toCharArray());
-            System.out.println(reportCase(caseN, solution));
+            var event = new CaseEvent();
+            event.startCase(caseN);
+
+            // The program is executed while it is read, so there is no separate parse time
+            var interpreter = in.executeNextProgram();
+            var solution = interpreter.getCoordinates();
+            event.solveTime = event.phaseDone();
+
+            out.println(reportCase(caseN, solution));
+            event.formatTime = event.phaseDone();
+            event.maxNestingDepth = interpreter.maxNestingDepth;
+            event.commitCase();
         }
     }
 
-    private static int[] solve(final char[] program) {
-
-        var currentMovement = new Movement();
-        var subprogramsWithMovement = new Stack<Subprogram>();
+    private static class Interpreter {
+        private Movement currentMovement = new Movement();
+        private final Stack<Subprogram> subprogramsWithMovement = new Stack<>();
+        public int maxNestingDepth = 0;
 
-        for (char read : program) {
+        public void execute(char read) {
             //Handle subprograms multipliers
             if (read >= '2' && read <= '9') {
                 var number = read - '0';
 
                 subprogramsWithMovement.push(new Subprogram(number, currentMovement));
+                maxNestingDepth = Math.max(maxNestingDepth, subprogramsWithMovement.size());
 
                 currentMovement = new Movement();
             }
@@ -121,15 +173,316 @@ public class Solution {
             currentMovement.executeMove(read);
         }
 
-        return currentMovement.getCoordinates();
+        public int[] getCoordinates() {
+            return currentMovement.getCoordinates();
+        }
     }
 
-    private static String reportCase(final int caseNumber, final int[] solution) {
-        return "Case #"+(caseNumber+1)+": "+solution[0]+" "+solution[1];
+    private static class ProgramReader {
+        // Reads the input in chunks of a fixed size, so a program line is never held in memory
+        private final ReadableByteChannel channel;
+        private final ByteBuffer chunk;
+
+        public ProgramReader(final ReadableByteChannel channel, final int chunkSize) {
+            this.channel = channel;
+            this.chunk = ByteBuffer.allocate(chunkSize);
+            this.chunk.flip();
+        }
+
+        public int readInt() throws IOException {
+            var number = 0;
+            int read;
+
+            while ((read = nextByte()) != -1 && read != '\n') {
+                if (read >= '0' && read <= '9') {
+                    number = number * 10 + (read - '0');
+                }
+            }
+
+            return number;
+        }
+
+        public Interpreter executeNextProgram() throws IOException {
+            var interpreter = new Interpreter();
+            int read;
+
+            while ((read = nextByte()) != -1 && read != '\n') {
+                interpreter.execute((char) read);
+            }
+
+            return interpreter;
+        }
+
+        private int nextByte() throws IOException {
+            while (!chunk.hasRemaining()) {
+                chunk.clear();
+                var bytesRead = channel.read(chunk);
+                chunk.flip();
+
+                if (bytesRead == -1) return -1;
+            }
+
+            // Unsigned, so a 0xFF byte is not taken for the end of the input
+            return chunk.get() & 0xFF;
+        }
+    }
+
+    public static class ProgramTree {
+        private final ProgramNode root;
+
+        private ProgramTree(final ProgramNode root) {
+            this.root = root;
+        }
+
+        public static ProgramTree parse(final char[] program) {
+            var openedSubprograms = new Stack<ArrayList<ProgramNode>>();
+            var multipliers = new Stack<Integer>();
+            var currentChildren = new ArrayList<ProgramNode>();
+
+            for (char read : program) {
+                if (read >= '2' && read <= '9') {
+                    openedSubprograms.push(currentChildren);
+                    multipliers.push(read - '0');
+                    currentChildren = new ArrayList<>();
+                } else if (read == ')') {
+                    var subprogram = ProgramNode.subprogram(multipliers.pop(), currentChildren);
+                    currentChildren = openedSubprograms.pop();
+                    currentChildren.add(subprogram);
+                } else if (read != '(') {
+                    currentChildren.add(ProgramNode.move(read));
+                }
+            }
+
+            return new ProgramTree(ProgramNode.subprogram(1, currentChildren));
+        }
+
+        public long steps() {
+            // Capped at Long.MAX_VALUE for programs expanding to more steps than that
+            return root.steps;
+        }
+
+        public int[] positionAt(long step) {
+            if (step < 0 || step > root.steps) {
+                throw new IllegalArgumentException("Step " + step + " is outside of the program");
+            }
+
+            var x = 0L;
+            var y = 0L;
+            var node = root;
+            var stepsLeft = step;
+
+            while (stepsLeft > 0) {
+                if (node.isMove()) {
+                    x += node.x;
+                    y += node.y;
+                    break;
+                }
+
+                var repetitions = stepsLeft / node.bodySteps;
+                stepsLeft %= node.bodySteps;
+                x += repetitions * node.bodyX % PLANET_LENGTH;
+                y += repetitions * node.bodyY % PLANET_LENGTH;
+
+                if (stepsLeft == 0) break;
+
+                var child = node.childAt(stepsLeft);
+                x += node.xBefore[child];
+                y += node.yBefore[child];
+                stepsLeft -= node.stepsBefore[child];
+                node = node.children[child];
+            }
+
+            return coordinates(x, y);
+        }
+
+        public int[][] positionsAt(long[] steps) {
+            for (long step : steps) {
+                if (step < 0 || step > root.steps) {
+                    throw new IllegalArgumentException("Step " + step + " is outside of the program");
+                }
+            }
+
+            var stepsLeft = steps.clone();
+            var x = new long[steps.length];
+            var y = new long[steps.length];
+            var queries = IntStream.range(0, steps.length)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(query -> steps[query]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            descend(root, queries, 0, queries.length, stepsLeft, x, y);
+
+            var positions = new int[steps.length][];
+            for (int query = 0; query < steps.length; query++) {
+                positions[query] = coordinates(x[query], y[query]);
+            }
+            return positions;
+        }
+
+        private void descend(final ProgramNode node, final int[] queries, final int from, final int to,
+                             final long[] stepsLeft, final long[] x, final long[] y) {
+            // queries[from, to) are sorted by stepsLeft, and they are all inside this node
+
+            var first = from;
+            while (first < to && stepsLeft[queries[first]] == 0) {
+                first++;
+            }
+
+            if (node.isMove()) {
+                for (int i = from; i < to; i++) {
+                    if (stepsLeft[queries[i]] == 1) {
+                        x[queries[i]] += node.x;
+                        y[queries[i]] += node.y;
+                    }
+                }
+                return;
+            }
+
+            // The repetitions split the (sorted) queries in blocks, and each block is still sorted inside the body
+            var blockStart = first;
+            while (blockStart < to) {
+                var repetitions = stepsLeft[queries[blockStart]] / node.bodySteps;
+                var blockEnd = blockStart;
+
+                while (blockEnd < to && stepsLeft[queries[blockEnd]] / node.bodySteps == repetitions) {
+                    var query = queries[blockEnd];
+                    stepsLeft[query] %= node.bodySteps;
+                    x[query] = (x[query] + repetitions * node.bodyX) % PLANET_LENGTH;
+                    y[query] = (y[query] + repetitions * node.bodyY) % PLANET_LENGTH;
+                    blockEnd++;
+                }
+
+                descendIntoChildren(node, queries, blockStart, blockEnd, stepsLeft, x, y);
+                blockStart = blockEnd;
+            }
+        }
+
+        private void descendIntoChildren(final ProgramNode node, final int[] queries, final int from, final int to,
+                                         final long[] stepsLeft, final long[] x, final long[] y) {
+            var first = from;
+            while (first < to && stepsLeft[queries[first]] == 0) {
+                first++;
+            }
+
+            var child = 0;
+            var groupStart = first;
+            while (groupStart < to) {
+                while (node.stepsBefore[child + 1] < stepsLeft[queries[groupStart]]) {
+                    child++;
+                }
+
+                var groupEnd = groupStart;
+                while (groupEnd < to && stepsLeft[queries[groupEnd]] <= node.stepsBefore[child + 1]) {
+                    var query = queries[groupEnd];
+                    stepsLeft[query] -= node.stepsBefore[child];
+                    x[query] += node.xBefore[child];
+                    y[query] += node.yBefore[child];
+                    groupEnd++;
+                }
+
+                descend(node.children[child], queries, groupStart, groupEnd, stepsLeft, x, y);
+                groupStart = groupEnd;
+            }
+        }
+
+        private static int[] coordinates(final long x, final long y) {
+            var movement = new Movement();
+            movement.x = (int)(x % PLANET_LENGTH);
+            movement.y = (int)(y % PLANET_LENGTH);
+            return movement.getCoordinates();
+        }
+    }
+
+    private static class ProgramNode {
+        // Step counts are capped, as we only need them to compare them with the steps asked for
+        private static final long MAX_STEPS = Long.MAX_VALUE;
+
+        public final ProgramNode[] children;
+        public final long steps;
+        public final int x;
+        public final int y;
+
+        // Only for subprograms: their body (repeated multiplier times) and the steps and movement before every child
+        public final long bodySteps;
+        public final long bodyX;
+        public final long bodyY;
+        public final long[] stepsBefore;
+        public final long[] xBefore;
+        public final long[] yBefore;
+
+        private ProgramNode(final ProgramNode[] children, final long steps, final int x, final int y,
+                            final long bodySteps, final long bodyX, final long bodyY,
+                            final long[] stepsBefore, final long[] xBefore, final long[] yBefore) {
+            this.children = children;
+            this.steps = steps;
+            this.x = x;
+            this.y = y;
+            this.bodySteps = bodySteps;
+            this.bodyX = bodyX;
+            this.bodyY = bodyY;
+            this.stepsBefore = stepsBefore;
+            this.xBefore = xBefore;
+            this.yBefore = yBefore;
+        }
+
+        public static ProgramNode move(final char move) {
+            var movement = new Movement();
+            movement.executeMove(move);
+            return new ProgramNode(null, 1, movement.x, movement.y, 0, 0, 0, null, null, null);
+        }
+
+        public static ProgramNode subprogram(final int multiplier, final List<ProgramNode> children) {
+            // stepsBefore has an extra last element with the steps of the whole body, to simplify the searches
+            var stepsBefore = new long[children.size() + 1];
+            var xBefore = new long[children.size() + 1];
+            var yBefore = new long[children.size() + 1];
+
+            for (int child = 0; child < children.size(); child++) {
+                var childNode = children.get(child);
+                stepsBefore[child + 1] = cappedSum(stepsBefore[child], childNode.steps);
+                xBefore[child + 1] = (xBefore[child] + childNode.x) % PLANET_LENGTH;
+                yBefore[child + 1] = (yBefore[child] + childNode.y) % PLANET_LENGTH;
+            }
+
+            var bodySteps = stepsBefore[children.size()];
+            var bodyX = xBefore[children.size()];
+            var bodyY = yBefore[children.size()];
+
+            return new ProgramNode(children.toArray(new ProgramNode[0]),
+                    cappedProduct(bodySteps, multiplier),
+                    (int)(bodyX * multiplier % PLANET_LENGTH),
+                    (int)(bodyY * multiplier % PLANET_LENGTH),
+                    bodySteps, bodyX, bodyY, stepsBefore, xBefore, yBefore);
+        }
+
+        public boolean isMove() {
+            return children == null;
+        }
+
+        public int childAt(final long step) {
+            // Child doing the step-th move of the body: the first one that has finished by then (stepsBefore is sorted)
+            var index = Arrays.binarySearch(stepsBefore, 1, children.length + 1, step);
+            if (index < 0) return -index - 2;
+
+            // Equal step counts come from empty subprograms, so we want the first child finishing there
+            while (index > 1 && stepsBefore[index - 1] == step) {
+                index--;
+            }
+            return index - 1;
+        }
+
+        private static long cappedSum(final long a, final long b) {
+            return a > MAX_STEPS - b ? MAX_STEPS : a + b;
+        }
+
+        private static long cappedProduct(final long steps, final int multiplier) {
+            return steps > MAX_STEPS / multiplier ? MAX_STEPS : steps * multiplier;
+        }
     }
 
-    private static int readInt() throws IOException {
-        return Integer.parseInt(in.readLine());
+    private static String reportCase(final int caseNumber, final int[] solution) {
+        return "Case #"+(caseNumber+1)+": "+solution[0]+" "+solution[1];
     }
 
     private static class Subprogram {
@@ -201,4 +554,50 @@ public class Solution {
             this.x = (this.x + 1) % PLANET_LENGTH;
         }
     }
+
+    @Name("kickstart.y2020.rB.C.Case")
+    @Label("Robot Path Decoding case")
+    @Category({"Kickstart 2020", "Round B"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+        @Label("Max nesting depth") public int maxNestingDepth;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }
@@ -53,6 +53,54 @@ therefore (you only have to check the 2 lines in the right and in the bottom and
 
 Nice trick to know about how to cleverly use logarithms to escape from factorials, something new I learnt today :D
 
+Many holes in the same arena:
+
+Looking at it from another angle, every path crosses each diagonal (squares where x+y is the same) exactly once. So the
+robot goes around the hole by the bottom-left if it crosses the diagonal going through the square just below-left of
+the hole at a square left of the hole, and around the top-right if it crosses the diagonal going through the square just
+above-right of the hole at a square right of it. And the probabilities along a diagonal are a binomial distribution, so
+the probability of crossing a piece of a diagonal is just the difference between two values of its cumulative
+distribution, which we can keep around for the next hole using the same diagonal.
+
+The only squares where this doesn't hold are the ones in the last row and column, because from there the robot can only
+go one way. But those can be calculated once per arena: the probability of reaching (x, lastRow) is the one of reaching
+(x-1, lastRow) plus half the one of reaching (x, lastRow-1), and the same for the last column. A diagonal reaches the
+last row (or column) at most in a single square, so each hole is two lookups in the diagonals plus at most two of these.
+
+That's only O(1) when the diagonals of the hole are already cached: a diagonal used for the first time still costs
+O(W+H) to compute, and building the engine costs another O(W+H) for the last row and column. So it only pays off when
+the same arena gets many holes. solveAll keeps engines for the last few arenas that showed up more than once and
+answers their cases through query, and just sums the strips of an arena the first time it sees it.
+
+Huge arenas:
+
+The logFact table only goes as far as the limits of the problem. For bigger arenas we can't have a table, but we don't
+need one: the logarithm of a factorial has a good approximation (Stirling's series), and written as the difference
+between the binomial and its normal approximation (like Catherine Loader's dbinom does) it keeps its precision even when
+the factorials are huge. And the squares reaching the last row are a binomial too: reaching (x, lastRow) means taking
+at least lastRow downs among the first x+lastRow moves.
+
+With that we only need one logarithm per strip: we start at the most likely square of the strip, and go outwards
+multiplying by the ratio between consecutive binomials, C(n, k+1) / C(n, k) = (n-k) / (k+1). The terms only get
+smaller going away from the middle, so once they don't change the sum in double precision anymore we can stop.
+That leaves a few times sqrt(n) squares per strip at worst, however long the strip is. So a query isn't constant time,
+it grows with sqrt(W+H), but that's a few thousand squares for arenas where the strips have billions. solveAll sends
+every arena too big for the logFact table (W+H past its length) to this engine.
+
+Summing the strips:
+
+The strips in solve are always a single row or column, and because the probability of landing in (x, y) is the same as
+in (y, x), both are a run of consecutive y for a fixed x. Summing one term after the other into a single double makes
+every Math.exp wait for the previous addition, and loses precision when adding tiny terms to a big sum. So for long
+strips we keep 4 independent sums (one every 4 squares) so the terms can be computed in parallel by the CPU, each one
+with Kahan's compensation for the lost precision, and add them together at the end.
+
+Starting warm:
+
+Filling logFact is the same 200000 logarithms on every run, so it can be done once and saved as a snapshot (a small
+header and the table as raw doubles). With -Dkickstart.rB.D.snapshot=file the table is read from the snapshot mapped
+in memory instead (and computed as always if the snapshot is missing or from another version).
+
 Test passes all test cases
  */
 
@@ -60,34 +108,101 @@ package kickstart.y2020.rB.D;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
 
 public class Solution {
     private static final int MAX_X = (int)Math.pow(10,5);
     private static final int MAX_Y = (int)Math.pow(10,5);
 
-    private static final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
     private static final double[] logFact = new double[MAX_X + MAX_Y];
+    private static final double LOG_2 = Math.log(2);
+
+    // Set -Dkickstart.rB.D.kernel=scalar to always use the plain loop
+    private static final StripKernel STRIP_KERNEL = "scalar".equals(System.getProperty("kickstart.rB.D.kernel"))
+            ? new ScalarStripKernel()
+            : new LaneStripKernel();
+
+    // Engines kept by solveAll for repeated arenas, each one with its own diagonals (up to W+H doubles each)
+    private static final int KEPT_ARENA_ENGINES = 4;
+
+    // Snapshot of the logFact table, written by writeSnapshot (see kickstart.y2020.WarmStart)
+    private static final int SNAPSHOT_MAGIC = 0x4b53_4c46;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 3 * Integer.BYTES;
+
+    static {
+        var snapshot = System.getProperty("kickstart.rB.D.snapshot");
+        if (snapshot == null || !loadSnapshot(Path.of(snapshot))) {
+            initializeLogFactNAccum();
+        }
+    }
 
     public static void main(String[] args) throws IOException {
-        initializeLogFactNAccum();
+        solveAll(System.in, System.out);
+    }
 
-        var cases = readInt();
+    public static void solveAll(final InputStream input, final PrintStream out) throws IOException {
+        var in = new BufferedReader(new InputStreamReader(input));
+        var cases = readInt(in);
+
+        // Arenas already seen once, and query engines for the last ones that came back
+        var arenasSeen = new HashSet<Long>();
+        var arenaEngines = new LinkedHashMap<Long, ArenaQueryEngine>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ArenaQueryEngine> eldest) {
+                return size() > KEPT_ARENA_ENGINES;
+            }
+        };
 
         for (int caseN = 0; caseN < cases; caseN++) {
-            var data = readInts();
-            var maxX = data.get(0) - 1;
-            var maxY = data.get(1) - 1;
-            var topX = data.get(2) - 1;
-            var topY = data.get(3) - 1;
-            var botX = data.get(4) - 1;
-            var botY = data.get(5) - 1;
+            var event = new CaseEvent();
+            event.startCase(caseN);
+
+            var data = readInts(in);
+            var width = data.get(0);
+            var height = data.get(1);
+            var left = data.get(2);
+            var up = data.get(3);
+            var right = data.get(4);
+            var down = data.get(5);
+            event.parseTime = event.phaseDone();
+
+            double probability;
+            var arena = (long) width << 32 | height;
+
+            if ((long) width + height > logFact.length) {
+                probability = new LargeArenaQueryEngine(width, height).query(left, up, right, down);
+            } else if (arenaEngines.containsKey(arena) || !arenasSeen.add(arena)) {
+                var engine = arenaEngines.computeIfAbsent(arena,
+                        key -> new ArenaQueryEngine(width, height));
+                probability = engine.query(left, up, right, down);
+            } else {
+                probability = solve(width - 1, height - 1, left - 1, up - 1, right - 1, down - 1);
+            }
+            event.solveTime = event.phaseDone();
 
-            var probability = solve(maxX, maxY, topX, topY, botX, botY);
-            System.out.println(reportCase(caseN, probability));
+            out.println(reportCase(caseN, probability));
+            event.formatTime = event.phaseDone();
+            event.commitCase();
         }
     }
 
@@ -101,6 +216,41 @@ public class Solution {
         }
     }
 
+    public static void writeSnapshot(final Path path) throws IOException {
+        var snapshot = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES + logFact.length * Double.BYTES)
+                .putInt(SNAPSHOT_MAGIC)
+                .putInt(SNAPSHOT_VERSION)
+                .putInt(logFact.length);
+        snapshot.asDoubleBuffer().put(logFact);
+        snapshot.rewind();
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+        }
+    }
+
+    private static boolean loadSnapshot(final Path path) {
+        // Fills logFact from the snapshot, if it is one of this version with a table of the same size
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() != SNAPSHOT_HEADER_BYTES + (long) logFact.length * Double.BYTES
+                    || snapshot.getInt() != SNAPSHOT_MAGIC || snapshot.getInt() != SNAPSHOT_VERSION
+                    || snapshot.getInt() != logFact.length) {
+                System.err.println("Ignoring the snapshot " + path + ": not a snapshot of this version");
+                return false;
+            }
+
+            snapshot.asDoubleBuffer().get(logFact);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Ignoring the snapshot " + path + ": " + e);
+            return false;
+        }
+    }
+
     private static double solve(final int maxX, final int maxY, final int topX, final int topY, final int botX, final int botY) {
 
         var escapingRightSideProb = 0.;
@@ -117,6 +267,9 @@ public class Solution {
     }
 
     private static double calculateProbabilityOfPath(final int topX, final int topY, final int botX, final int botY) {
+        if (topX == botX) return STRIP_KERNEL.sum(topX, topY, botY);
+        if (topY == botY) return STRIP_KERNEL.sum(topY, topX, botX);
+
         var prob = 0.;
 
         for (var x = topX; x <= botX; x++) {
@@ -133,17 +286,360 @@ public class Solution {
     }
 
 
+    private interface StripKernel {
+        // Sum of the probabilities of landing in (fixed, from), (fixed, from + 1) ... (fixed, to)
+        double sum(int fixed, int from, int to);
+    }
+
+    private static class ScalarStripKernel implements StripKernel {
+        public double sum(final int fixed, final int from, final int to) {
+            var prob = 0.;
+
+            for (var y = from; y <= to; y++) {
+                prob += probabilityOfLandingInSquare(fixed, y);
+            }
+
+            return prob;
+        }
+    }
+
+    private static class LaneStripKernel implements StripKernel {
+        private static final int LANES = 4;
+        private static final int MIN_LENGTH = 4 * LANES;
+
+        private final StripKernel shortStripKernel = new ScalarStripKernel();
+
+        public double sum(final int fixed, final int from, final int to) {
+            if (to - from + 1 < MIN_LENGTH) return shortStripKernel.sum(fixed, from, to);
+
+            // log of every term is logFact[fixed + y] - logFact[y] - (logFact[fixed] + (fixed + y) * log 2)
+            var base = logFact[fixed] + fixed * LOG_2;
+            var sums = new double[LANES];
+            var compensations = new double[LANES];
+
+            var y = from;
+            for (; y + LANES - 1 <= to; y += LANES) {
+                for (int lane = 0; lane < LANES; lane++) {
+                    var square = y + lane;
+                    var term = Math.exp(logFact[fixed + square] - logFact[square] - base - square * LOG_2);
+                    addCompensated(sums, compensations, lane, term);
+                }
+            }
+            for (; y <= to; y++) {
+                addCompensated(sums, compensations, 0, probabilityOfLandingInSquare(fixed, y));
+            }
+
+            var total = new double[1];
+            var totalCompensation = new double[1];
+            for (int lane = 0; lane < LANES; lane++) {
+                addCompensated(total, totalCompensation, 0, sums[lane]);
+                addCompensated(total, totalCompensation, 0, -compensations[lane]);
+            }
+            return total[0];
+        }
+
+        private static void addCompensated(final double[] sums, final double[] compensations, final int lane,
+                                           final double term) {
+            var corrected = term - compensations[lane];
+            var sum = sums[lane] + corrected;
+            compensations[lane] = (sum - sums[lane]) - corrected;
+            sums[lane] = sum;
+        }
+    }
+
+    public static class ArenaQueryEngine {
+        // Every cached diagonal holds as many probabilities as squares the diagonal has, up to W+H (so 16 of them are
+        // about 25MB on a 10^5 x 10^5 arena)
+        private static final int DEFAULT_CACHED_DIAGONALS = 16;
+
+        private final int maxX;
+        private final int maxY;
+        private final double[] lastRowProbability;
+        private final double[] lastColumnProbability;
+        private final Map<Integer, double[]> diagonalCumulativeProbabilities;
+
+        public ArenaQueryEngine(final int width, final int height) {
+            this(width, height, DEFAULT_CACHED_DIAGONALS);
+        }
+
+        public ArenaQueryEngine(final int width, final int height, final int cachedDiagonals) {
+            this.maxX = width - 1;
+            this.maxY = height - 1;
+            this.lastRowProbability = boundaryProbabilities(maxX, maxY);
+            this.lastColumnProbability = boundaryProbabilities(maxY, maxX);
+            this.diagonalCumulativeProbabilities = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, double[]> eldest) {
+                    return size() > cachedDiagonals;
+                }
+            };
+        }
+
+        public double query(final int left, final int up, final int right, final int down) {
+            var topX = left - 1;
+            var topY = up - 1;
+            var botX = right - 1;
+            var botY = down - 1;
+
+            var escapingBottomLeftProb = 0.;
+            var escapingTopRightProb = 0.;
+
+            if (botY != maxY) {
+                // Diagonal through (topX-1, botY+1), squares left of the hole
+                escapingBottomLeftProb = probabilityOfCrossingDiagonal(topX + botY, topX - 1, maxY, lastRowProbability);
+            }
+            if (botX != maxX) {
+                // Diagonal through (botX+1, topY-1), squares above the hole (it's symmetric, so we can go by y)
+                escapingTopRightProb = probabilityOfCrossingDiagonal(botX + topY, topY - 1, maxX, lastColumnProbability);
+            }
+
+            return escapingBottomLeftProb + escapingTopRightProb;
+        }
+
+        public double[] query(final int[][] holes) {
+            // Holes are {L, U, R, D}, 1-indexed like in the input
+            var probabilities = new double[holes.length];
+
+            for (int i = 0; i < holes.length; i++) {
+                probabilities[i] = query(holes[i][0], holes[i][1], holes[i][2], holes[i][3]);
+            }
+
+            return probabilities;
+        }
+
+        private double probabilityOfCrossingDiagonal(final int diagonal, final int lastSquare, final int otherMax,
+                                                     final double[] boundaryProbability) {
+            // Squares are indexed by the coordinate going along the boundary. The ones past otherMax - 1 would be
+            // beyond the boundary, and the one just at the boundary is handled by its own probabilities
+            if (lastSquare < 0) return 0;
+
+            var firstInsideSquare = Math.max(0, diagonal - otherMax + 1);
+            var prob = 0.;
+
+            if (firstInsideSquare <= lastSquare) {
+                var cumulative = cumulativeProbabilities(diagonal);
+                prob += cumulative[lastSquare] - (firstInsideSquare > 0 ? cumulative[firstInsideSquare - 1] : 0);
+            }
+
+            var boundarySquare = diagonal - otherMax;
+            if (boundarySquare >= 0 && boundarySquare <= lastSquare) {
+                prob += boundaryProbability[boundarySquare];
+            }
+
+            return prob;
+        }
+
+        private double[] cumulativeProbabilities(final int diagonal) {
+            return diagonalCumulativeProbabilities.computeIfAbsent(diagonal, n -> {
+                var cumulative = new double[n + 1];
+                var accumulated = 0.;
+
+                for (int x = 0; x <= n; x++) {
+                    accumulated += probabilityOfLandingInSquare(x, n - x);
+                    cumulative[x] = accumulated;
+                }
+
+                return cumulative;
+            });
+        }
+
+        private static double[] boundaryProbabilities(final int along, final int boundary) {
+            // Probability of reaching every square of the last row (or column) but the last one
+            // (the probability of landing in a square is symmetric, so it works the same for rows and columns)
+            var probabilities = new double[Math.max(along, 0)];
+            var accumulated = boundary == 0 ? 1. : 0.;
+
+            for (int square = 0; square < along; square++) {
+                if (boundary != 0) {
+                    accumulated += probabilityOfLandingInSquare(square, boundary - 1) / 2;
+                }
+                probabilities[square] = accumulated;
+            }
+
+            return probabilities;
+        }
+    }
+
+    public static class LargeArenaQueryEngine {
+        private static final double LOG_SQRT_2PI = 0.5 * Math.log(2 * Math.PI);
+        private static final double NEGLIGIBLE = 0x1p-56;
+
+        private final long maxX;
+        private final long maxY;
+
+        public LargeArenaQueryEngine(final long width, final long height) {
+            this.maxX = width - 1;
+            this.maxY = height - 1;
+        }
+
+        public double query(final long left, final long up, final long right, final long down) {
+            var topX = left - 1;
+            var topY = up - 1;
+            var botX = right - 1;
+            var botY = down - 1;
+
+            var escapingBottomLeftProb = 0.;
+            var escapingTopRightProb = 0.;
+
+            if (botY != maxY) {
+                escapingBottomLeftProb = probabilityOfCrossingDiagonal(topX + botY, topX - 1, maxY);
+            }
+            if (botX != maxX) {
+                escapingTopRightProb = probabilityOfCrossingDiagonal(botX + topY, topY - 1, maxX);
+            }
+
+            return escapingBottomLeftProb + escapingTopRightProb;
+        }
+
+        public double[] query(final long[][] holes) {
+            // Holes are {L, U, R, D}, 1-indexed like in the input
+            var probabilities = new double[holes.length];
+
+            for (int i = 0; i < holes.length; i++) {
+                probabilities[i] = query(holes[i][0], holes[i][1], holes[i][2], holes[i][3]);
+            }
+
+            return probabilities;
+        }
+
+        private static double probabilityOfCrossingDiagonal(final long diagonal, final long lastSquare, final long otherMax) {
+            // Same as ArenaQueryEngine, with the squares in the last row (or column) calculated as a binomial too
+            if (lastSquare < 0) return 0;
+
+            var prob = binomialProbability(diagonal, Math.max(0, diagonal - otherMax + 1), lastSquare);
+
+            var boundarySquare = diagonal - otherMax;
+            if (boundarySquare >= 0 && boundarySquare <= lastSquare) {
+                prob += otherMax == 0 ? 1 : binomialProbability(boundarySquare + otherMax, otherMax, boundarySquare + otherMax);
+            }
+
+            return prob;
+        }
+
+        private static double binomialProbability(final long n, final long from, final long to) {
+            // Probability of getting between from and to heads out of n coin flips
+            if (from > to) return 0;
+
+            var mostLikely = Math.min(Math.max(n / 2, from), to);
+
+            // Terms are relative to the most likely one, which is multiplied at the end to keep the precision
+            var sum = 1.;
+            var term = 1.;
+            for (long k = mostLikely; k < to && term >= sum * NEGLIGIBLE; k++) {
+                term *= (double) (n - k) / (k + 1);
+                sum += term;
+            }
+            term = 1.;
+            for (long k = mostLikely; k > from && term >= sum * NEGLIGIBLE; k--) {
+                term *= (double) k / (n - k + 1);
+                sum += term;
+            }
+
+            return Math.exp(logBinomialProbability(n, mostLikely) + Math.log(sum));
+        }
+
+        private static double logBinomialProbability(final long n, final long k) {
+            // log(C(n, k) / 2^n), following the saddle point expansion used by Loader's dbinom
+            if (k == 0 || k == n) return -n * Math.log(2);
+
+            var half = n / 2.;
+            var logCoefficient = stirlingError(n) - stirlingError(k) - stirlingError(n - k)
+                    - deviance(k, half) - deviance(n - k, half);
+            var logNormalization = 2 * LOG_SQRT_2PI + Math.log(k) + Math.log1p(-(double) k / n);
+
+            return logCoefficient - 0.5 * logNormalization;
+        }
+
+        private static double stirlingError(final long n) {
+            // log(n!) - log(sqrt(2 pi n) (n/e)^n)
+            if (n <= 15) {
+                var logFactorial = 0.;
+                for (int i = 2; i <= n; i++) {
+                    logFactorial += Math.log(i);
+                }
+                return logFactorial - (n + 0.5) * Math.log(n) + n - LOG_SQRT_2PI;
+            }
+
+            var nn = (double) n * n;
+            return (1. / 12 - (1. / 360 - (1. / 1260 - (1. / 1680 - 1. / (1188 * nn)) / nn) / nn) / nn) / n;
+        }
+
+        private static double deviance(final long x, final double mean) {
+            // x log(x / mean) + mean - x, without the cancellation when x is close to the mean
+            if (Math.abs(x - mean) < 0.1 * (x + mean)) {
+                var v = (x - mean) / (x + mean);
+                var sum = (x - mean) * v;
+                var term = 2 * x * v;
+                v = v * v;
+
+                for (int j = 1; ; j++) {
+                    term *= v;
+                    var nextSum = sum + term / (2 * j + 1);
+                    if (nextSum == sum) return nextSum;
+                    sum = nextSum;
+                }
+            }
+
+            return x * Math.log(x / mean) + mean - x;
+        }
+    }
+
     private static String reportCase(int caseNumber, double solution) {
         return "Case #"+(caseNumber+1)+": "+solution;
     }
 
-    private static int readInt() throws IOException {
+    private static int readInt(final BufferedReader in) throws IOException {
         return Integer.parseInt(in.readLine());
     }
 
-    private static List<Integer> readInts() throws IOException {
+    private static List<Integer> readInts(final BufferedReader in) throws IOException {
         return Arrays.stream(in.readLine().split(" "))
                 .map(Integer::valueOf)
                 .collect(Collectors.toList());
     }
+
+    @Name("kickstart.y2020.rB.D.Case")
+    @Label("Wandering Robot case")
+    @Category({"Kickstart 2020", "Round B"})
+    private static class CaseEvent extends Event {
+        @Label("Case number") public int caseNumber;
+        @Label("Parse time") @Timespan public long parseTime;
+        @Label("Solve time") @Timespan public long solveTime;
+        @Label("Format time") @Timespan public long formatTime;
+        @Label("Allocated") @DataAmount public long allocated;
+
+        private transient boolean recording;
+        private transient long phaseStart;
+        private transient long allocatedBefore;
+
+        public void startCase(final int caseNumber) {
+            recording = isEnabled();
+            if (!recording) return;
+
+            this.caseNumber = caseNumber + 1;
+            this.allocatedBefore = allocatedBytes();
+            this.phaseStart = System.nanoTime();
+            begin();
+        }
+
+        public long phaseDone() {
+            if (!recording) return 0;
+
+            var now = System.nanoTime();
+            var elapsed = now - phaseStart;
+            phaseStart = now;
+            return elapsed;
+        }
+
+        public void commitCase() {
+            if (!recording) return;
+
+            this.allocated = allocatedBytes() - allocatedBefore;
+            commit();
+        }
+
+        private static long allocatedBytes() {
+            return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+        }
+    }
 }